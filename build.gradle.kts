@@ -18,15 +18,51 @@ repositories {
 	mavenCentral()
 }
 
+// Processamento AOT do Spring com -Paot (por exemplo ./gradlew explodedApp -Paot): as definições de beans são geradas
+// no build e lidas com -Dspring.aot.enabled=true. As condições (@ConditionalOnProperty, perfis) são avaliadas aqui, com
+// os perfis de -PaotProfiles (padrão prod), e ficam fixas no build.
+if (providers.gradleProperty("aot").isPresent) {
+	apply(plugin = "org.springframework.boot.aot")
+
+	tasks.named<JavaExec>("processAot") {
+		args("--spring.profiles.active=" + providers.gradleProperty("aotProfiles").getOrElse("prod"))
+	}
+}
+
+// Benchmarks JMH em src/jmh/java, fora do build normal: ./gradlew jmh
+val jmh: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// Teste de carga com SLO em src/loadTest/java, também fora do build normal: ./gradlew loadTest
+val loadTest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("org.springframework.boot:spring-boot-starter-aop")
 	implementation("jakarta.validation:jakarta.validation-api")
 	implementation("org.hibernate.validator:hibernate-validator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+	implementation("org.flywaydb:flyway-core")
     compileOnly("org.projectlombok:lombok:1.18.30")
     annotationProcessor("org.projectlombok:lombok:1.18.30")
 	runtimeOnly("com.h2database:h2")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+	runtimeOnly("org.postgresql:postgresql")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -35,8 +71,112 @@ dependencies {
 
     testImplementation("org.mockito:mockito-core:5.5.0")
     testImplementation("org.mockito:mockito-junit-jupiter:5.5.0")
+
+	"jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// Só para os testes; em qualquer outro ambiente a chave vem de COUPON_GENERATOR_KEY.
+	systemProperty("coupon.generator.key", "1")
+}
+
+val commit = providers.exec { commandLine("git", "rev-parse", "--short", "HEAD"); isIgnoreExitValue = true }
+	.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+val jmhResultsDir = layout.buildDirectory.dir("reports/jmh")
+
+/**
+ * Roda os benchmarks e grava o resultado em JSON, um arquivo por commit (build/reports/jmh/results-<commit>.json).
+ * -PjmhIncludes=<regex> filtra benchmarks; -PjmhArgs="..." repassa opções extras ao JMH.
+ */
+tasks.register<JavaExec>("jmh") {
+	group = "benchmark"
+	description = "Executa os benchmarks JMH"
+	classpath = jmh.runtimeClasspath
+	mainClass = "org.openjdk.jmh.Main"
+	// Chave padrão para todo benchmark que sobe a aplicação; os forks do JMH herdam as -D desta JVM.
+	systemProperty("coupon.generator.key", "1")
+
+	val resultFile = jmhResultsDir.zip(commit) { dir, hash -> dir.file("results-$hash.json") }
+	outputs.upToDateWhen { false }
+
+	doFirst {
+		jmhResultsDir.get().asFile.mkdirs()
+		args(listOfNotNull(
+			providers.gradleProperty("jmhIncludes").orNull,
+			"-rf", "json",
+			"-rff", resultFile.get().asFile.absolutePath
+		) + (providers.gradleProperty("jmhArgs").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()))
+	}
+}
+
+/**
+ * Compara dois resultados JSON do JMH e falha se algum benchmark piorar mais que o limite:
+ * ./gradlew jmhCompare -Pbaseline=<arquivo> -Pcurrent=<arquivo> [-Pthreshold=10]
+ */
+tasks.register<JavaExec>("jmhCompare") {
+	group = "benchmark"
+	description = "Compara dois resultados do JMH e falha em caso de regressão"
+	classpath = jmh.runtimeClasspath
+	mainClass = "com.br.elton.tecnologia.coupon.benchmark.JmhResultComparator"
+	jvmArgs("-Dstdout.encoding=UTF-8", "-Dstderr.encoding=UTF-8")
+
+	doFirst {
+		args(
+			providers.gradleProperty("baseline").get(),
+			providers.gradleProperty("current").get(),
+			providers.gradleProperty("threshold").getOrElse("10")
+		)
+	}
+}
+
+val runtimeJars = sourceSets.main.get().runtimeClasspath.filter { it.isFile && it.name.endsWith(".jar") }
+
+/**
+ * Aplicação sem jar aninhado, para rodar com CDS: build/app/app.jar só com as classes do projeto (e as geradas pelo
+ * processAot, com -Paot) e as dependências em build/app/lib, referenciadas pelo Class-Path do manifesto. O arquivo CDS
+ * só guarda classes lidas de jars comuns do classpath, não de dentro do jar do Spring Boot.
+ */
+val explodedAppJar = tasks.register<Jar>("explodedAppJar") {
+	archiveClassifier = "app"
+	from(sourceSets.main.get().output)
+	sourceSets.findByName("aot")?.let { from(it.output) }
+	manifest {
+		attributes(
+			"Main-Class" to "com.br.elton.tecnologia.coupon.CouponApplication",
+			"Class-Path" to providers.provider { runtimeJars.joinToString(" ") { "lib/" + it.name } }
+		)
+	}
+}
+
+tasks.register<Sync>("explodedApp") {
+	group = "build"
+	description = "Monta a aplicação em build/app, com as dependências fora do jar (CDS)"
+	into(layout.buildDirectory.dir("app"))
+	from(explodedAppJar) { rename { "app.jar" } }
+	into("lib") { from(runtimeJars) }
+}
+
+val loadTestResultsDir = layout.buildDirectory.dir("reports/load-test")
+
+/**
+ * Roda a carga mista contra a aplicação e falha se algum SLO for violado; o resultado vai para
+ * build/reports/load-test/results-<commit>.json. -Ploadtest.<chave>=<valor> sobrescreve src/loadTest/resources/load-test.properties.
+ */
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Executa o teste de carga e verifica os SLOs"
+	classpath = loadTest.runtimeClasspath
+	mainClass = "com.br.elton.tecnologia.coupon.loadtest.LoadTest"
+	jvmArgs("-Dstdout.encoding=UTF-8", "-Dstderr.encoding=UTF-8")
+
+	val resultFile = loadTestResultsDir.zip(commit) { dir, hash -> dir.file("results-$hash.json") }
+	val overrides = providers.gradlePropertiesPrefixedBy("loadtest.")
+	outputs.upToDateWhen { false }
+
+	doFirst {
+		systemProperty("loadtest.report", resultFile.get().asFile.absolutePath)
+		systemProperties(overrides.get())
+	}
 }
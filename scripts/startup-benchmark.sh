@@ -0,0 +1,54 @@
+#!/bin/sh
+# Mede o tempo até a primeira resposta: do lançamento do comando até GET /coupon/page responder 200.
+#
+#   scripts/startup-benchmark.sh [-n execuções] [-p porta] -- comando...
+#
+# O comando deve subir a aplicação na porta informada (padrão 8080) e é encerrado ao fim de cada execução. Exemplos:
+#   scripts/startup-benchmark.sh -n 5 -- docker run --rm -p 8080:8080 coupon:latest
+#   scripts/startup-benchmark.sh -n 5 -- docker run --rm -p 8080:8080 coupon:fast
+set -eu
+
+runs=5
+port=8080
+timeout=120
+while [ $# -gt 0 ]; do
+  case "$1" in
+    -n) runs=$2; shift 2 ;;
+    -p) port=$2; shift 2 ;;
+    --) shift; break ;;
+    *) echo "uso: $0 [-n execuções] [-p porta] -- comando..." >&2; exit 2 ;;
+  esac
+done
+[ $# -gt 0 ] || { echo "uso: $0 [-n execuções] [-p porta] -- comando..." >&2; exit 2; }
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+results=""
+i=1
+while [ "$i" -le "$runs" ]; do
+  start=$(now_ms)
+  "$@" >/dev/null 2>&1 &
+  pid=$!
+  elapsed=""
+  while kill -0 "$pid" 2>/dev/null; do
+    status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/coupon/page" || true)
+    if [ "$status" = 200 ]; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    [ $(( $(now_ms) - start )) -lt $(( timeout * 1000 )) ] || break
+    sleep 0.02
+  done
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  [ -n "$elapsed" ] || { echo "execução $i: a aplicação não respondeu" >&2; exit 1; }
+  echo "execução $i: ${elapsed} ms"
+  results="$results $elapsed"
+  i=$((i + 1))
+  # Espera a porta ser liberada antes da próxima execução.
+  while curl -s -o /dev/null "http://localhost:$port/" 2>/dev/null; do sleep 0.2; done
+done
+
+echo "$results" | tr ' ' '\n' | grep . | sort -n | awk '
+  { v[NR] = $1; sum += $1 }
+  END { printf "mediana: %d ms  mín: %d ms  máx: %d ms  média: %d ms\n", v[int((NR + 1) / 2)], v[1], v[NR], sum / NR }'
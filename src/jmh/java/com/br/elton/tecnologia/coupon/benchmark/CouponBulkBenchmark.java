@@ -0,0 +1,155 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.CouponApplication;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkReport;
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCodePermutation;
+import com.br.elton.tecnologia.coupon.domain.service.CouponBulkService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tempo por cupom criado, um a um contra em lote, com {@value #BATCH} cupons por invocação sobre o H2 em memória
+ * e o contexto Spring completo. Os benchmarks {@code create*} chamam os services direto; os {@code post*} passam
+ * pelo HTTP em loopback, como o cliente que hoje faz um {@code POST /coupon} por cupom. Cada iteração começa com os
+ * mesmos {@value #SEEDED_COUPONS} cupons: os criados são apagados ao fim da iteração, senão a tabela do lote, que
+ * cria dezenas de milhares de cupons por iteração, ficaria bem maior que a do um a um.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 6, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponBulkBenchmark {
+
+    static final int SEEDED_COUPONS = 10_000;
+    static final int BATCH = 500;
+    private static final String CREATED_DESCRIPTION = "Criado no benchmark";
+
+    private ConfigurableApplicationContext context;
+    private CouponService couponService;
+    private CouponBulkService couponBulkService;
+    private ObjectMapper objectMapper;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient httpClient;
+    private URI baseUri;
+    private CouponCodePermutation permutation;
+    private final AtomicLong nextCode = new AtomicLong();
+    private LocalDateTime expiration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long generatorKey = new SecureRandom().nextLong();
+        // Argumentos de linha de comando, e não properties(): estes precisam vencer os valores do application.yaml.
+        context = new SpringApplicationBuilder(CouponApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bulk-benchmark;DB_CLOSE_DELAY=-1",
+                "--coupon.generator.key=" + generatorKey,
+                "--coupon.bulk.chunk-size=" + BATCH,
+                "--coupon.archive.enabled=false",
+                "--coupon.rate-limit.enabled=false",
+                "--logging.level.root=WARN");
+        couponService = context.getBean(CouponService.class);
+        couponBulkService = context.getBean(CouponBulkService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        httpClient = HttpClient.newHttpClient();
+        baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/coupon");
+        permutation = new CouponCodePermutation(generatorKey);
+        expiration = LocalDateTime.now().plusYears(1);
+
+        couponService.generate(new CouponGeneration(SEEDED_COUPONS, "Benchmark", BigDecimal.valueOf(1.5), expiration, true));
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeCreated() {
+        jdbcTemplate.update("DELETE FROM coupon WHERE description = ?", CREATED_DESCRIPTION);
+        jdbcTemplate.update("DELETE FROM coupon_outbox");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createOneByOne(Blackhole blackhole) {
+        for (CouponCreated coupon : nextBatch()) {
+            blackhole.consume(couponService.create(coupon));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public CouponBulkReport createBulk() {
+        return couponBulkService.createAll(nextBatch().iterator());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void postOneByOne(Blackhole blackhole) throws IOException, InterruptedException {
+        for (CouponCreated coupon : nextBatch()) {
+            blackhole.consume(post(baseUri, coupon));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String postBulk() throws IOException, InterruptedException {
+        return post(baseUri.resolve("coupon/bulk"), nextBatch());
+    }
+
+    private String post(URI uri, Object body) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            throw new IllegalStateException("POST " + uri + " respondeu " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Códigos do fim da permutação do gerador, que consome índices a partir do zero: nunca colidem com os semeados.
+     */
+    private List<CouponCreated> nextBatch() {
+        List<CouponCreated> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            String code = permutation.codeAt(CouponCodePermutation.CODE_SPACE - 1 - nextCode.getAndIncrement());
+            batch.add(new CouponCreated(code, CREATED_DESCRIPTION, BigDecimal.valueOf(1.5), expiration, true));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,47 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sanitização e validação de código, executadas em toda criação, validação e item de lote.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponDomainBenchmark {
+
+    @Param({"ABC123", "abc-123", " a.b.c 1-2-3 "})
+    public String code;
+
+    private Coupon coupon;
+
+    @Setup
+    public void setUp() {
+        coupon = Coupon.builder()
+                .code(code)
+                .description("Benchmark")
+                .discountValue(BigDecimal.valueOf(1.5))
+                .expirationDate(LocalDateTime.now().plusYears(1))
+                .build();
+    }
+
+    @Benchmark
+    public String sanitizeCode() {
+        return Coupon.sanitizeCode(code);
+    }
+
+    @Benchmark
+    public void validateForCreation(Blackhole blackhole) {
+        coupon.validateForCreation();
+        blackhole.consume(coupon);
+    }
+}
@@ -0,0 +1,70 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.api.controller.CouponListWriter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tempo para escrever a lista de {@code GET /coupon} em cada formato de {@link CouponListWriter}, com e sem gzip.
+ * O tamanho em bytes por cupom de cada combinação é impresso no início do trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponListFormatBenchmark {
+
+    @Param({"500", "10000"})
+    public int size;
+
+    @Param({"JSON", "NDJSON", "CBOR"})
+    public CouponListWriter.Format format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private CouponListWriter writer;
+    private List<CouponResponse> coupons;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = new CouponListWriter(Jackson2ObjectMapperBuilder.json().build());
+        coupons = new ArrayList<>(size);
+        LocalDateTime expiration = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < size; i++) {
+            coupons.add(new CouponResponse(UUID.randomUUID(), String.format("C%05d", i), "Cupom de benchmark " + i,
+                    BigDecimal.valueOf(1.5), expiration.plusMinutes(i), true, i % 2 == 0 ? 100 : null, null));
+        }
+        buffer = new ByteArrayOutputStream(size * 256);
+
+        System.out.printf("%n%s gzip=%s: %.1f bytes por cupom%n", format, gzip, (double) writeList() / size);
+    }
+
+    @Benchmark
+    public int writeList() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream compressed = new GZIPOutputStream(buffer, 8192)) {
+                writer.write(format, coupons::forEach, compressed);
+            }
+        } else {
+            writer.write(format, coupons::forEach, buffer);
+        }
+        return buffer.size();
+    }
+}
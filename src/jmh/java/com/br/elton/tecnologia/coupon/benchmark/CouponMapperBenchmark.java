@@ -0,0 +1,49 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponMapperBenchmark {
+
+    private Coupon coupon;
+    private CouponCreated created;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime expiration = LocalDateTime.now().plusYears(1);
+        coupon = Coupon.builder()
+                .id(UUID.randomUUID())
+                .code("ABC123")
+                .description("Benchmark")
+                .discountValue(BigDecimal.valueOf(1.5))
+                .expirationDate(expiration)
+                .published(true)
+                .maxUses(100)
+                .build();
+        created = new CouponCreated("abc-123", "Benchmark", BigDecimal.valueOf(1.5), expiration, true, 100, 1);
+    }
+
+    @Benchmark
+    public CouponResponse toResponse() {
+        return CouponMapper.toResponse(coupon);
+    }
+
+    @Benchmark
+    public Coupon toEntity() {
+        return CouponMapper.toEntity(created);
+    }
+}
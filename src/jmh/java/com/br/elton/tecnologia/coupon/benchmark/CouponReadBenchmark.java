@@ -0,0 +1,72 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.CouponApplication;
+import com.br.elton.tecnologia.coupon.api.dto.CouponFilter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.api.dto.CouponPage;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras de {@link CouponService} sobre {@value #SEEDED_COUPONS} cupons no H2 em memória: a lista completa
+ * ({@code streamValidCoupon}) e a página máxima de {@code listValidCoupon}. Rode com {@code -prof gc} para ver a
+ * alocação por operação ({@code gc.alloc.rate.norm}) junto com a latência.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class CouponReadBenchmark {
+
+    static final int SEEDED_COUPONS = 100_000;
+    private static final int GENERATION_BATCH = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private CouponService couponService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Argumentos de linha de comando, e não properties(): estes precisam vencer os valores do application.yaml.
+        context = new SpringApplicationBuilder(CouponApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:read-benchmark;DB_CLOSE_DELAY=-1",
+                        "--coupon.generator.key=" + new SecureRandom().nextLong(),
+                        "--coupon.generator.max-quantity=" + GENERATION_BATCH,
+                        "--coupon.archive.enabled=false",
+                        "--logging.level.root=WARN");
+        couponService = context.getBean(CouponService.class);
+
+        LocalDateTime expiration = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < SEEDED_COUPONS / GENERATION_BATCH; i++) {
+            couponService.generate(new CouponGeneration(GENERATION_BATCH, "Benchmark", BigDecimal.valueOf(1.5),
+                    expiration.plusDays(i), true));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        couponService.streamValidCoupon(CouponFilter.NONE, blackhole::consume);
+    }
+
+    @Benchmark
+    public CouponPage firstPage() {
+        return couponService.listValidCoupon(null, 500);
+    }
+}
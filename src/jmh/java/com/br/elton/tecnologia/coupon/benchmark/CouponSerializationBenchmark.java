@@ -0,0 +1,49 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização de listas de {@link CouponResponse} com um {@link ObjectMapper} configurado como o do Spring Boot.
+ * 50 e 500 são o tamanho padrão e o máximo de {@code GET /coupon/page}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponSerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<CouponResponse> coupons;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        coupons = new ArrayList<>(size);
+        LocalDateTime expiration = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < size; i++) {
+            coupons.add(new CouponResponse(UUID.randomUUID(), String.format("C%05d", i), "Cupom de benchmark " + i,
+                    BigDecimal.valueOf(1.5), expiration.plusMinutes(i), true, null, null));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(coupons);
+    }
+}
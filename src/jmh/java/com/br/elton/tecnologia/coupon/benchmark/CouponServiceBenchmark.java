@@ -0,0 +1,90 @@
+package com.br.elton.tecnologia.coupon.benchmark;
+
+import com.br.elton.tecnologia.coupon.CouponApplication;
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.api.dto.CouponPage;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCodePermutation;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CouponService} com o contexto Spring completo sobre o H2 em memória, incluindo transação, Flyway e índices.
+ * A tabela começa com {@value #SEEDED_COUPONS} cupons; {@link #create()} acrescenta um cupom por chamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponServiceBenchmark {
+
+    static final int SEEDED_COUPONS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private CouponService couponService;
+    private CouponCodePermutation permutation;
+    private final AtomicLong nextCode = new AtomicLong();
+    private LocalDateTime expiration;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long generatorKey = new SecureRandom().nextLong();
+        // Argumentos de linha de comando, e não properties(): estes precisam vencer os valores do application.yaml.
+        context = new SpringApplicationBuilder(CouponApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--coupon.generator.key=" + generatorKey,
+                        "--coupon.archive.enabled=false",
+                        "--logging.level.root=WARN");
+        couponService = context.getBean(CouponService.class);
+        permutation = new CouponCodePermutation(generatorKey);
+        expiration = LocalDateTime.now().plusYears(1);
+
+        couponService.generate(new CouponGeneration(SEEDED_COUPONS, "Benchmark", BigDecimal.valueOf(1.5), expiration, true));
+
+        CouponPage page = null;
+        for (int i = 0; i < 10; i++) {
+            page = couponService.listValidCoupon(page != null ? page.nextCursor() : null, 500);
+        }
+        deepCursor = page.nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Os códigos vêm do fim da mesma permutação usada pelo gerador, que consome índices a partir do zero,
+     * então nunca colidem com os cupons semeados.
+     */
+    @Benchmark
+    public CouponResponse create() {
+        String code = permutation.codeAt(CouponCodePermutation.CODE_SPACE - 1 - nextCode.getAndIncrement());
+        return couponService.create(new CouponCreated(code, "Benchmark", BigDecimal.valueOf(1.5), expiration, true));
+    }
+
+    @Benchmark
+    public CouponPage listFirstPage() {
+        return couponService.listValidCoupon(null, 50);
+    }
+
+    @Benchmark
+    public CouponPage listDeepPage() {
+        return couponService.listValidCoupon(deepCursor, 50);
+    }
+}
@@ -0,0 +1,84 @@
+package com.br.elton.tecnologia.coupon.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latências de um cenário, em nanossegundos, guardadas inteiras: os percentis saem exatos, sem histograma.
+ * A latência é contada do horário em que a requisição deveria sair, e não de quando saiu, para que atrasos
+ * do próprio gerador sob sobrecarga apareçam no resultado (coordinated omission).
+ */
+final class LatencyRecorder {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Integer> outcomes = new TreeMap<>();
+    private long[] latencies = new long[4096];
+    private int count;
+    private int errors;
+
+    /**
+     * @param outcome status HTTP ou nome da exceção, para o resumo de respostas
+     */
+    void record(long latencyNanos, boolean success, String outcome) {
+        lock.lock();
+        try {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+            outcomes.merge(outcome, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Summary summarize(double seconds) {
+        lock.lock();
+        try {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Summary(count, errors, count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count > 0 ? sorted[count - 1] / 1e6 : 0, new TreeMap<>(outcomes));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nearest-rank: o menor valor com pelo menos {@code p} das amostras menores ou iguais a ele.
+     */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * Latências em milissegundos.
+     */
+    record Summary(int requests, int errors, double throughput,
+                   double p50, double p99, double p999, double max, Map<String, Integer> outcomes) {
+
+        double errorRate() {
+            return requests > 0 ? (double) errors / requests : 0;
+        }
+
+        double percentile(String name) {
+            return switch (name) {
+                case "p50" -> p50;
+                case "p99" -> p99;
+                case "p999" -> p999;
+                case "max" -> max;
+                default -> throw new IllegalArgumentException("Percentil desconhecido: " + name);
+            };
+        }
+    }
+}
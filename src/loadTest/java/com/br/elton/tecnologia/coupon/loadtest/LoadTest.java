@@ -0,0 +1,213 @@
+package com.br.elton.tecnologia.coupon.loadtest;
+
+import com.br.elton.tecnologia.coupon.CouponApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga com SLO: sobe a aplicação no mesmo processo (ou usa {@code base-url}), roda os cenários de
+ * {@link Workload} em modelo aberto, cada um na sua taxa, e falha (código de saída 1) quando algum percentil ou a
+ * taxa de erro passa do limite configurado em {@code slo.*}.
+ *
+ * <p>Cada requisição roda numa virtual thread; a taxa é mantida mesmo que o servidor fique lento, e a latência é
+ * medida a partir do horário planejado, então fila no gerador conta como latência.
+ */
+public final class LoadTest {
+
+    private static final String[] PERCENTILES = {"p50", "p99", "p999", "max"};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        String baseUrl = config.text("base-url", "");
+        ConfigurableApplicationContext context = baseUrl.isEmpty() ? startApplication(config) : null;
+        int exitCode;
+        try {
+            if (context != null) {
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            }
+            exitCode = run(config, baseUrl);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * As propriedades {@code app.*} vão como argumentos de linha de comando, que têm precedência sobre os
+     * arquivos de configuração, inclusive os de perfil. Sem {@code app.coupon.generator.key}, a aplicação embarcada
+     * recebe uma chave aleatória.
+     */
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("coupon.generator.key", String.valueOf(new SecureRandom().nextLong()));
+        properties.putAll(config.withPrefix("app."));
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(CouponApplication.class).run(args);
+    }
+
+    private static int run(LoadTestConfig config, String baseUrl) throws Exception {
+        Duration warmup = config.duration("warmup", Duration.ofSeconds(10));
+        Duration duration = config.duration("duration", Duration.ofSeconds(30));
+        Duration requestTimeout = config.duration("request-timeout", Duration.ofSeconds(10));
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .connectTimeout(requestTimeout)
+                     .build()) {
+            Workload workload = new Workload(httpClient, objectMapper, baseUrl, requestTimeout);
+            workload.seed(config.integer("seed-coupons", 5000));
+
+            List<Workload.Scenario> scenarios = workload.scenarios(config);
+            Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+            scenarios.forEach(scenario -> recorders.put(scenario.name(), new LatencyRecorder()));
+
+            System.out.printf("Teste de carga em %s: aquecimento %ds, medição %ds%n",
+                    baseUrl, warmup.toSeconds(), duration.toSeconds());
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<Thread> pacers = new ArrayList<>();
+            for (Workload.Scenario scenario : scenarios) {
+                LatencyRecorder recorder = recorders.get(scenario.name());
+                pacers.add(Thread.ofPlatform().name("pacer-" + scenario.name())
+                        .start(() -> pace(scenario, start, measureFrom, end, executor, recorder)));
+            }
+            for (Thread pacer : pacers) {
+                pacer.join();
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(requestTimeout.toSeconds() + 5, TimeUnit.SECONDS)) {
+                System.out.println("Requisições ainda pendentes ao fim da espera; elas não entram no resultado.");
+            }
+
+            Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+            recorders.forEach((name, recorder) -> summaries.put(name, recorder.summarize(duration.toNanos() / 1e9)));
+            print(summaries);
+            List<String> violations = checkSlo(config, summaries);
+            writeReport(config, objectMapper, baseUrl, duration, summaries, violations);
+
+            if (violations.isEmpty()) {
+                System.out.println("Todos os SLOs atendidos.");
+                return 0;
+            }
+            System.out.println("SLOs violados:");
+            violations.forEach(violation -> System.out.println("  - " + violation));
+            return 1;
+        }
+    }
+
+    /**
+     * Dispara as requisições do cenário nos horários planejados, sem esperar as anteriores terminarem. Só as que
+     * foram planejadas depois do aquecimento são registradas.
+     */
+    private static void pace(Workload.Scenario scenario, long start, long measureFrom, long end,
+                             ExecutorService executor, LatencyRecorder recorder) {
+        long interval = (long) (scenario.burstSize() * 1e9 / scenario.rate());
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduledAt = intended;
+            LatencyRecorder target = intended >= measureFrom ? recorder : null;
+            for (int i = 0; i < scenario.burstSize(); i++) {
+                executor.execute(() -> call(scenario, scheduledAt, target));
+            }
+        }
+    }
+
+    private static void call(Workload.Scenario scenario, long scheduledAt, LatencyRecorder recorder) {
+        try {
+            Integer status = scenario.request().send();
+            if (status != null && recorder != null) {
+                recorder.record(System.nanoTime() - scheduledAt, scenario.accepted().contains(status), String.valueOf(status));
+            }
+        } catch (Exception e) {
+            if (recorder != null) {
+                recorder.record(System.nanoTime() - scheduledAt, false, e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static List<String> checkSlo(LoadTestConfig config, Map<String, LatencyRecorder.Summary> summaries) {
+        List<String> violations = new ArrayList<>();
+        double defaultErrorRate = config.number("slo.error-rate", 0.01);
+        summaries.forEach((name, summary) -> {
+            if (summary.requests() == 0) {
+                violations.add(name + ": nenhuma requisição medida");
+                return;
+            }
+            double maxErrorRate = config.number("slo." + name + ".error-rate", defaultErrorRate);
+            if (summary.errorRate() > maxErrorRate) {
+                violations.add(String.format(Locale.ROOT, "%s: taxa de erro %.2f%% acima de %.2f%% %s",
+                        name, summary.errorRate() * 100, maxErrorRate * 100, summary.outcomes()));
+            }
+            for (String percentile : PERCENTILES) {
+                Duration limit = config.durationOrNull("slo." + name + "." + percentile);
+                double measured = summary.percentile(percentile);
+                if (limit != null && measured > limit.toNanos() / 1e6) {
+                    violations.add(String.format(Locale.ROOT, "%s: %s de %.1f ms acima de %d ms",
+                            name, percentile, measured, limit.toMillis()));
+                }
+            }
+        });
+        return violations;
+    }
+
+    private static void print(Map<String, LatencyRecorder.Summary> summaries) {
+        System.out.printf("%n%-10s %11s %8s %9s %9s %9s %9s %9s%n",
+                "cenário", "requisições", "erros", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        summaries.forEach((name, summary) -> System.out.printf(Locale.ROOT, "%-10s %11d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, summary.requests(), summary.errors(), summary.throughput(),
+                summary.p50(), summary.p99(), summary.p999(), summary.max()));
+        System.out.println();
+    }
+
+    private static void writeReport(LoadTestConfig config, ObjectMapper objectMapper, String baseUrl, Duration duration,
+                                    Map<String, LatencyRecorder.Summary> summaries, List<String> violations) throws IOException {
+        String report = config.text("report", "");
+        if (report.isEmpty()) {
+            return;
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("timestamp", Instant.now().toString());
+        content.put("baseUrl", baseUrl);
+        content.put("durationSeconds", duration.toSeconds());
+        content.put("scenarios", summaries);
+        content.put("violations", violations);
+        Path path = Path.of(report);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), content);
+        System.out.println("Resultado salvo em " + path.toAbsolutePath());
+    }
+}
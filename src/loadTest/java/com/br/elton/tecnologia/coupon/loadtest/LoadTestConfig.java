@@ -0,0 +1,80 @@
+package com.br.elton.tecnologia.coupon.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Configuração do teste de carga: {@code load-test.properties} do classpath, sobrescrito pelas propriedades de
+ * sistema com prefixo {@code loadtest.} (a tarefa Gradle repassa {@code -Ploadtest.*}).
+ */
+final class LoadTestConfig {
+
+    private static final String SYSTEM_PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestConfig load() {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/load-test.properties")) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(SYSTEM_PREFIX))
+                .forEach(name -> properties.setProperty(name.substring(SYSTEM_PREFIX.length()), System.getProperty(name)));
+        return new LoadTestConfig(properties);
+    }
+
+    String text(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue).trim();
+    }
+
+    int integer(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    double number(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Aceita o formato do Spring Boot ({@code 30s}, {@code 250ms}) e ISO 8601 ({@code PT30S}).
+     */
+    Duration duration(String key, Duration defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? DurationStyle.detectAndParse(value.trim()) : defaultValue;
+    }
+
+    Duration durationOrNull(String key) {
+        return duration(key, null);
+    }
+
+    /**
+     * Propriedades com o prefixo informado, sem o prefixo.
+     */
+    Map<String, String> withPrefix(String prefix) {
+        Map<String, String> values = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                values.put(name.substring(prefix.length()), properties.getProperty(name).trim());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,191 @@
+package com.br.elton.tecnologia.coupon.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cenários da carga mista e o estado que eles compartilham: códigos conhecidos para validar, ids que ainda podem
+ * ser deletados e o último ETag da lista, como faria um cliente em polling.
+ */
+final class Workload {
+
+    private static final String CODE_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int SEED_CHUNK = 1000;
+
+    /**
+     * @param rate      requisições por segundo
+     * @param burstSize requisições enviadas juntas a cada {@code burstSize / rate} segundos; 1 para taxa constante
+     * @param accepted  status considerados sucesso
+     */
+    record Scenario(String name, double rate, int burstSize, Set<Integer> accepted, Request request) {
+    }
+
+    @FunctionalInterface
+    interface Request {
+
+        /**
+         * @return status HTTP, ou {@code null} quando não havia o que fazer (por exemplo, nenhum cupom para deletar)
+         */
+        Integer send() throws IOException, InterruptedException;
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final List<String> codes = new ArrayList<>();
+    private final ReentrantLock codesLock = new ReentrantLock();
+    private final Queue<String> deletableIds = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<String> listEtag = new AtomicReference<>();
+    private final String expirationDate = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS).toString();
+
+    Workload(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Cenários com taxa maior que zero em {@code scenario.<nome>.rate}.
+     */
+    List<Scenario> scenarios(LoadTestConfig config) {
+        List<Scenario> all = List.of(
+                scenario(config, "create", Set.of(201), this::create),
+                scenario(config, "list", Set.of(200, 304), this::list),
+                scenario(config, "page", Set.of(200), this::page),
+                scenario(config, "validate", Set.of(200, 400), this::validate),
+                scenario(config, "delete", Set.of(200), this::delete));
+        return all.stream().filter(scenario -> scenario.rate() > 0).toList();
+    }
+
+    /**
+     * Gera cupons publicados antes da medição, para que validação, listagem e deleção não comecem com a tabela vazia.
+     */
+    void seed(int quantity) throws IOException, InterruptedException {
+        for (int generated = 0; generated < quantity; generated += SEED_CHUNK) {
+            int chunk = Math.min(SEED_CHUNK, quantity - generated);
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "quantity", chunk, "description", "Carga", "discountValue", 1.5,
+                    "expirationDate", expirationDate, "published", true));
+            HttpResponse<byte[]> response = httpClient.send(post("/coupon/generate", body), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Falha ao gerar cupons iniciais: HTTP " + response.statusCode());
+            }
+            for (JsonNode coupon : objectMapper.readTree(response.body())) {
+                remember(coupon);
+            }
+        }
+    }
+
+    private Integer create() throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "code", randomCode(), "description", "Carga", "discountValue", 1.5,
+                "expirationDate", expirationDate, "published", true));
+        HttpResponse<byte[]> response = httpClient.send(post("/coupon", body), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 201) {
+            remember(objectMapper.readTree(response.body()));
+        }
+        return response.statusCode();
+    }
+
+    private Integer list() throws IOException, InterruptedException {
+        HttpRequest.Builder request = get("/coupon").header("Accept-Encoding", "gzip");
+        String etag = listEtag.get();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        response.headers().firstValue("ETag").ifPresent(listEtag::set);
+        return response.statusCode();
+    }
+
+    private Integer page() throws IOException, InterruptedException {
+        return httpClient.send(get("/coupon/page?limit=50").build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Códigos já deletados respondem 400 ("Cupom inválido ou expirado"), o que também é uma resposta correta.
+     */
+    private Integer validate() throws IOException, InterruptedException {
+        String code;
+        codesLock.lock();
+        try {
+            if (codes.isEmpty()) {
+                return null;
+            }
+            code = codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+        } finally {
+            codesLock.unlock();
+        }
+        return httpClient.send(get("/coupon/validate/" + code).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private Integer delete() throws IOException, InterruptedException {
+        String id = deletableIds.poll();
+        if (id == null) {
+            return null;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/coupon/" + id))
+                .timeout(requestTimeout)
+                .DELETE()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void remember(JsonNode coupon) {
+        codesLock.lock();
+        try {
+            codes.add(coupon.get("code").asText());
+        } finally {
+            codesLock.unlock();
+        }
+        deletableIds.add(coupon.get("id").asText());
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout).GET();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String randomCode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] code = new char[6];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length()));
+        }
+        return new String(code);
+    }
+
+    private static Scenario scenario(LoadTestConfig config, String name, Set<Integer> accepted, Request request) {
+        return new Scenario(name,
+                config.number("scenario." + name + ".rate", 0),
+                Math.max(1, config.integer("scenario." + name + ".burst-size", 1)),
+                accepted, request);
+    }
+}
@@ -1,15 +1,51 @@
 package com.br.elton.tecnologia.coupon.api.controller;
 
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDelete;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDeleteReport;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkReport;
+import com.br.elton.tecnologia.coupon.api.dto.CouponCacheStats;
+import com.br.elton.tecnologia.coupon.api.dto.CouponChanges;
 import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponFilter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.api.dto.CouponPage;
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedeem;
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedemptionResponse;
 import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.service.CouponBulkService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponChangeService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponEventStream;
+import com.br.elton.tecnologia.coupon.domain.service.CouponIdempotencyService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponListCache;
+import com.br.elton.tecnologia.coupon.domain.service.CouponRedemptionService;
 import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponValidationCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,13 +58,63 @@ import io.swagger.v3.oas.annotations.Parameter;
 @Tag(name = "Coupon", description = "Endpoints para gerenciar cupons")
 public class CouponController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final CouponService couponService;
+    private final CouponBulkService couponBulkService;
+    private final CouponChangeService couponChangeService;
+    private final CouponEventStream couponEventStream;
+    private final CouponIdempotencyService couponIdempotencyService;
+    private final CouponRedemptionService couponRedemptionService;
+    private final CouponValidationCache couponValidationCache;
+    private final CouponListCache couponListCache;
+    private final CouponListWriter couponListWriter;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Criar cupom", description = "Cria um novo cupom e retorna o recurso criado")
+    @Operation(summary = "Criar cupom", description = "Cria um novo cupom e retorna o recurso criado. Com Idempotency-Key, reenvios com a mesma chave e o mesmo corpo recebem a resposta original")
     @PostMapping
-    public ResponseEntity<CouponResponse> create(@RequestBody @Valid CouponCreated couponCreated) {
-        CouponResponse createdCoupon = couponService.create(couponCreated);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdCoupon);
+    public ResponseEntity<CouponResponse> create(@RequestBody @Valid CouponCreated couponCreated,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                 @Parameter(description = "Chave para executar a criação uma única vez") String idempotencyKey) throws IOException {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(couponService.create(couponCreated));
+        }
+        String fingerprint = RequestFingerprint.of(objectMapper.writeValueAsBytes(couponCreated));
+        CouponIdempotencyService.Result<CouponResponse> result = couponIdempotencyService.execute(
+                CouponIdempotencyService.Operation.CREATE, idempotencyKey, CouponResponse.class,
+                () -> couponService.create(couponCreated), () -> fingerprint);
+        return idempotent(ResponseEntity.status(HttpStatus.CREATED), result);
+    }
+
+    @Operation(summary = "Criar cupons em lote", description = "Cria cupons a partir de um array JSON ou de NDJSON (um cupom por linha) e retorna o resultado de cada item. Com Idempotency-Key, reenvios com a mesma chave e o mesmo corpo recebem o relatório original")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CouponBulkReport> createBulk(InputStream body,
+                                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                       @Parameter(description = "Chave para executar o lote uma única vez") String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(createAll(body));
+        }
+        RequestFingerprint.Digesting digesting = RequestFingerprint.digesting(body);
+        CouponIdempotencyService.Result<CouponBulkReport> result = couponIdempotencyService.execute(
+                CouponIdempotencyService.Operation.BULK_CREATE, idempotencyKey, CouponBulkReport.class,
+                () -> createAll(digesting), digesting::fingerprint);
+        return idempotent(ResponseEntity.ok(), result);
+    }
+
+    @Operation(summary = "Gerar cupons", description = "Cria a quantidade informada de cupons com códigos únicos gerados pelo servidor")
+    @PostMapping("/generate")
+    public ResponseEntity<List<CouponResponse>> generate(@RequestBody @Valid CouponGeneration couponGeneration) {
+        List<CouponResponse> generatedCoupons = couponService.generate(couponGeneration);
+        return ResponseEntity.status(HttpStatus.CREATED).body(generatedCoupons);
+    }
+
+    @Operation(summary = "Resgatar cupom", description = "Registra o uso de um cupom válido por um cliente, respeitando os limites de uso total e por cliente")
+    @PostMapping("/{code}/redeem")
+    public ResponseEntity<CouponRedemptionResponse> redeem(@PathVariable @Parameter(description = "Código do cupom", required = true) String code,
+                                                           @RequestBody CouponRedeem couponRedeem) {
+        CouponRedemptionResponse redemption = couponRedemptionService.redeem(code, couponRedeem);
+        return ResponseEntity.status(HttpStatus.CREATED).body(redemption);
     }
 
     @Operation(summary = "Deletar cupom (soft delete)", description = "Marca o cupom como deletado (soft delete)")
@@ -38,10 +124,193 @@ public class CouponController {
         return ResponseEntity.ok(couponDeleted);
     }
 
-    @Operation(summary = "Listar cupons válidos", description = "Retorna a lista de cupons que não estão marcados como deletados e que sejam válidos")
+    @Operation(summary = "Deletar cupons em lote (soft delete)", description = "Marca como deletados os cupons informados e separa os IDs inexistentes dos já deletados")
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<CouponBulkDeleteReport> deleteBulk(@RequestBody CouponBulkDelete couponBulkDelete) {
+        CouponBulkDeleteReport report = couponService.deleteAllById(couponBulkDelete);
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(summary = "Listar cupons válidos", description = "Retorna o array de cupons publicados, não deletados e dentro da validade, ordenado por data de expiração e opcionalmente filtrado. Sem filtros, suporta GET condicional com If-None-Match e If-Modified-Since e responde em gzip quando aceito")
     @GetMapping
-    public ResponseEntity<List<CouponResponse>> listValidCoupon() {
-        List<CouponResponse> couponResponse = couponService.listValidCoupon();
-        return ResponseEntity.ok(couponResponse);
+    public ResponseEntity<StreamingResponseBody> listValidCoupon(@ParameterObject CouponFilter filter, WebRequest request) throws IOException {
+        // Só a lista completa fica em cache; buscas filtradas vão direto ao banco.
+        Optional<CouponListCache.Snapshot> cached = filter.isEmpty()
+                ? couponListCache.get(outputStream -> writeValidCoupons(CouponFilter.NONE, outputStream))
+                : Optional.empty();
+        if (cached.isEmpty()) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(outputStream -> writeValidCoupons(filter, outputStream));
+        }
+
+        // A variante gzip tem ETag próprio: é outra representação do mesmo conteúdo.
+        CouponListCache.Snapshot snapshot = cached.get();
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? snapshot.etag() + "-gzip" : snapshot.etag();
+        if (request.checkNotModified(etag, snapshot.lastModified().toEpochMilli())) {
+            return null;
+        }
+        byte[] body = gzip ? snapshot.gzipBody() : snapshot.body();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(outputStream -> outputStream.write(body));
+    }
+
+    @Operation(summary = "Listar cupons válidos (NDJSON)", description = "Mesma lista e filtros de GET /coupon, um cupom JSON por linha, enviada à medida que as linhas são lidas do banco")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listValidCouponNdjson(@ParameterObject CouponFilter filter) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(outputStream -> couponListWriter.write(CouponListWriter.Format.NDJSON,
+                        consumer -> couponService.streamValidCoupon(filter, consumer), outputStream));
+    }
+
+    @Operation(summary = "Listar cupons válidos (CBOR)", description = "Mesma lista e filtros de GET /coupon em CBOR (RFC 8949), com UUIDs e valores decimais em binário")
+    @GetMapping(produces = CouponListWriter.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<StreamingResponseBody> listValidCouponCbor(@ParameterObject CouponFilter filter) {
+        return ResponseEntity.ok()
+                .contentType(CouponListWriter.APPLICATION_CBOR)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(outputStream -> couponListWriter.write(CouponListWriter.Format.CBOR,
+                        consumer -> couponService.streamValidCoupon(filter, consumer), outputStream));
+    }
+
+    @Operation(summary = "Listar cupons válidos (paginado)", description = "Retorna uma página de cupons publicados, não deletados e dentro da validade, e o cursor opaco da próxima página")
+    @GetMapping("/page")
+    public ResponseEntity<CouponPage> listValidCouponPage(
+            @RequestParam(required = false) @Parameter(description = "Cursor retornado pela página anterior") String cursor,
+            @RequestParam(required = false) @Parameter(description = "Quantidade máxima de cupons na página (1 a 500)") Integer limit) {
+        CouponPage couponPage = couponService.listValidCoupon(cursor, limit);
+        return ResponseEntity.ok(couponPage);
+    }
+
+    @Operation(summary = "Alterações desde um cursor", description = "Retorna o estado atual dos cupons criados, deletados ou arquivados (tombstones) depois do cursor informado, na ordem dos eventos da outbox, e o cursor para a próxima sincronização. Sem cursor, começa pelos cupons existentes")
+    @GetMapping("/changes")
+    public ResponseEntity<CouponChanges> listChanges(
+            @RequestParam(required = false) @Parameter(description = "Cursor retornado pela sincronização anterior; vazio para começar do início") String since,
+            @RequestParam(required = false) @Parameter(description = "Quantidade máxima de alterações na página (1 a 1000)") Integer limit) {
+        CouponChanges couponChanges = couponChangeService.listChanges(since, limit);
+        return ResponseEntity.ok(couponChanges);
+    }
+
+    @Operation(summary = "Stream de eventos de cupons", description = "Server-Sent Events com a criação (CREATED), a deleção (DELETED) e o arquivamento (ARCHIVED) de cupons. Ao reconectar, envie o último id recebido em Last-Event-ID para receber os eventos perdidos")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestHeader(name = "Last-Event-ID", required = false) @Parameter(description = "Id do último evento recebido") Long lastEventId) {
+        return couponEventStream.subscribe(lastEventId);
+    }
+
+    @Operation(summary = "Validar cupom", description = "Retorna o cupom se o código estiver publicado, não deletado e dentro da validade")
+    @GetMapping("/validate/{code}")
+    public ResponseEntity<CouponResponse> validate(@PathVariable @Parameter(description = "Código do cupom", required = true) String code) {
+        CouponResponse coupon = couponService.validate(code);
+        return ResponseEntity.ok(coupon);
+    }
+
+    @Operation(summary = "Estatísticas do cache de validação", description = "Retorna tamanho, acertos, falhas e remoções do cache de validação por código")
+    @GetMapping("/validate/stats")
+    public ResponseEntity<CouponCacheStats> validationCacheStats() {
+        return ResponseEntity.ok(couponValidationCache.stats());
+    }
+
+    private CouponBulkReport createAll(InputStream body) {
+        try (MappingIterator<CouponCreated> items = objectMapper.readerFor(CouponCreated.class).readValues(body)) {
+            return couponBulkService.createAll(failingAsIllegalArgument(items));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> ResponseEntity<T> idempotent(ResponseEntity.BodyBuilder response, CouponIdempotencyService.Result<T> result) {
+        if (result.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.body(result.response());
+    }
+
+    private static <T> Iterator<T> failingAsIllegalArgument(MappingIterator<T> items) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return items.hasNextValue();
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException(e.getOriginalMessage(), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return items.nextValue();
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException(e.getOriginalMessage(), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Escreve a lista em JSON e retorna a expiração do primeiro cupom: como a lista vem em ordem de expiração,
+     * até esse instante nenhum cupom sai dela sem uma escrita.
+     */
+    private Instant writeValidCoupons(CouponFilter filter, OutputStream outputStream) throws IOException {
+        LocalDateTime[] firstExpiration = new LocalDateTime[1];
+        couponListWriter.write(CouponListWriter.Format.JSON, consumer -> couponService.streamValidCoupon(filter, coupon -> {
+            if (firstExpiration[0] == null) {
+                firstExpiration[0] = coupon.expirationDate();
+            }
+            consumer.accept(coupon);
+        }), outputStream);
+        return firstExpiration[0] != null ? firstExpiration[0].atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    /**
+     * Se o Accept-Encoding aceita gzip: vale o {@code q} de {@code gzip} quando ele aparece, em qualquer posição, e
+     * senão o de {@code *}; {@code q=0} recusa.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                return isAcceptable(parts);
+            }
+            if (name.equals("*") && wildcard == null) {
+                wildcard = isAcceptable(parts);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static boolean isAcceptable(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String[] parameter = codingParts[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim()) > 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return true;
     }
 }
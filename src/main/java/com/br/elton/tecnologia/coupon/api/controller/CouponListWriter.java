@@ -0,0 +1,78 @@
+package com.br.elton.tecnologia.coupon.api.controller;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Formatos da lista de cupons. Todos escrevem um cupom por vez, à medida que a consulta avança, sem montar a lista
+ * em memória:
+ * <ul>
+ *     <li>{@code JSON}: array;</li>
+ *     <li>{@code NDJSON}: um objeto JSON por linha;</li>
+ *     <li>{@code CBOR}: array de tamanho indefinido, com UUIDs em 16 bytes e valores decimais como fração
+ *     decimal binária em vez de texto.</li>
+ * </ul>
+ * O mapper CBOR é uma cópia do {@link ObjectMapper} da aplicação, com os mesmos módulos e configurações.
+ */
+@Component
+public class CouponListWriter {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf(APPLICATION_CBOR_VALUE);
+
+    public enum Format {
+        JSON, NDJSON, CBOR
+    }
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    public CouponListWriter(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    /**
+     * @param source chamado uma vez com o consumidor que escreve cada cupom, como {@code CouponService::streamValidCoupon}
+     */
+    public void write(Format format, Consumer<Consumer<CouponResponse>> source, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = (format == Format.CBOR ? cborMapper : jsonMapper).createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.NDJSON) {
+            // Sem o separador padrão (espaço) entre valores na raiz; cada linha termina com '\n'.
+            generator.setRootValueSeparator(null);
+            source.accept(coupon -> writeLine(generator, coupon));
+        } else {
+            generator.writeStartArray();
+            source.accept(coupon -> writeCoupon(generator, coupon));
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+
+    private static void writeCoupon(JsonGenerator generator, CouponResponse coupon) {
+        try {
+            generator.writeObject(coupon);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(JsonGenerator generator, CouponResponse coupon) {
+        try {
+            generator.writeObject(coupon);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.br.elton.tecnologia.coupon.api.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 do corpo da requisição, em hexadecimal, para reconhecer um reenvio com a mesma {@code Idempotency-Key}
+ * mas outro conteúdo.
+ */
+final class RequestFingerprint {
+
+    private RequestFingerprint() {
+    }
+
+    static String of(byte[] body) {
+        return HexFormat.of().formatHex(sha256().digest(body));
+    }
+
+    /**
+     * Corpo lido em streaming e resumido enquanto é consumido, sem ser guardado em memória.
+     */
+    static Digesting digesting(InputStream body) {
+        return new Digesting(body);
+    }
+
+    static final class Digesting extends DigestInputStream {
+
+        private String fingerprint;
+
+        private Digesting(InputStream body) {
+            super(body, sha256());
+        }
+
+        /**
+         * Lê o que ainda não foi consumido e retorna o hash do corpo inteiro; chamadas seguintes retornam o mesmo.
+         */
+        String fingerprint() {
+            if (fingerprint == null) {
+                try {
+                    transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                fingerprint = HexFormat.of().formatHex(getMessageDigest().digest());
+            }
+            return fingerprint;
+        }
+
+        /**
+         * O parser fecha a entrada ao terminar, mas o resto do corpo ainda precisa entrar no hash; o stream da
+         * requisição é fechado pelo container.
+         */
+        @Override
+        public void close() {
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
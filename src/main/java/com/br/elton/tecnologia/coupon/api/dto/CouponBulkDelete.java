@@ -0,0 +1,9 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CouponBulkDelete(
+        List<UUID> ids
+) {
+}
@@ -0,0 +1,11 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CouponBulkDeleteReport(
+        int requested,
+        int deleted,
+        int alreadyDeleted,
+        List<UUID> notFound
+) {}
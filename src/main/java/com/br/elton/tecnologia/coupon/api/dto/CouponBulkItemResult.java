@@ -0,0 +1,25 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.UUID;
+
+public record CouponBulkItemResult(
+        int index,
+        String code,
+        Status status,
+        UUID id,
+        String message
+) {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    public static CouponBulkItemResult created(int index, String code, UUID id) {
+        return new CouponBulkItemResult(index, code, Status.CREATED, id, null);
+    }
+
+    public static CouponBulkItemResult failed(int index, String code, String message) {
+        return new CouponBulkItemResult(index, code, Status.FAILED, null, message);
+    }
+}
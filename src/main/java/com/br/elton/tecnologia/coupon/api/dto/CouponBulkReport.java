@@ -0,0 +1,10 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.List;
+
+public record CouponBulkReport(
+        int total,
+        int created,
+        int failed,
+        List<CouponBulkItemResult> items
+) {}
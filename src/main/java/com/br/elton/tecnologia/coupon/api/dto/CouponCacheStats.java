@@ -0,0 +1,9 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+public record CouponCacheStats(
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount
+) {}
@@ -0,0 +1,21 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * @param coupon estado atual do cupom; {@code null} nos tombstones ({@link Type#DELETED})
+ */
+public record CouponChange(
+        Type type,
+        UUID id,
+        String code,
+        LocalDateTime changedAt,
+        CouponResponse coupon
+) {
+
+    public enum Type {
+        UPSERTED,
+        DELETED
+    }
+}
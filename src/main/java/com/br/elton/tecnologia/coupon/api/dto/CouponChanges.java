@@ -0,0 +1,13 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor marca d'água para a próxima chamada; sempre presente, mesmo sem alterações
+ * @param hasMore    {@code true} quando já existem mais alterações além desta página
+ */
+public record CouponChanges(
+        List<CouponChange> changes,
+        String nextCursor,
+        boolean hasMore
+) {}
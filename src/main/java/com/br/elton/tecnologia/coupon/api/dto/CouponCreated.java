@@ -3,11 +3,21 @@ package com.br.elton.tecnologia.coupon.api.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * @param maxUses            total de resgates permitidos; {@code null} para ilimitado
+ * @param maxUsesPerCustomer resgates permitidos por cliente; {@code null} para ilimitado
+ */
 public record CouponCreated(
         String code,
         String description,
         BigDecimal discountValue,
         LocalDateTime expirationDate,
-        Boolean published
+        Boolean published,
+        Integer maxUses,
+        Integer maxUsesPerCustomer
 ) {
+
+    public CouponCreated(String code, String description, BigDecimal discountValue, LocalDateTime expirationDate, Boolean published) {
+        this(code, description, discountValue, expirationDate, published, null, null);
+    }
 }
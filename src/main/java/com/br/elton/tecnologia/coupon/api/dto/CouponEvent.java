@@ -0,0 +1,18 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * @param id offset do evento no stream, enviado também como {@code id} do evento SSE
+ */
+public record CouponEvent(
+        long id,
+        CouponOutboxEvent.Type type,
+        UUID couponId,
+        String code,
+        LocalDateTime occurredAt
+) {
+}
@@ -0,0 +1,39 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais de {@code GET /coupon}, todos inclusivos e combinados com E sobre os cupons válidos.
+ */
+public record CouponFilter(
+        @Parameter(description = "Prefixo do código, sanitizado como o próprio código (maiúsculas, sem símbolos)")
+        String codePrefix,
+        @Parameter(description = "Desconto mínimo")
+        BigDecimal minDiscount,
+        @Parameter(description = "Desconto máximo")
+        BigDecimal maxDiscount,
+        @Parameter(description = "Expiração a partir de (ISO 8601, ex.: 2026-01-01T00:00:00)")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime expiresFrom,
+        @Parameter(description = "Expiração até (ISO 8601)")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime expiresTo
+) {
+
+    public static final CouponFilter NONE = new CouponFilter(null, null, null, null, null);
+
+    /**
+     * Sem nenhum filtro efetivo. Um prefixo só com símbolos, como {@code ---}, fica vazio depois de sanitizado e não
+     * filtra nada, então conta como ausente.
+     */
+    public boolean isEmpty() {
+        String sanitizedPrefix = Coupon.sanitizeCode(codePrefix);
+        return (sanitizedPrefix == null || sanitizedPrefix.isEmpty())
+                && minDiscount == null && maxDiscount == null && expiresFrom == null && expiresTo == null;
+    }
+}
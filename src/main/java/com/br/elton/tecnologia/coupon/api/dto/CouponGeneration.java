@@ -0,0 +1,19 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CouponGeneration(
+        Integer quantity,
+        String description,
+        BigDecimal discountValue,
+        LocalDateTime expirationDate,
+        Boolean published,
+        Integer maxUses,
+        Integer maxUsesPerCustomer
+) {
+
+    public CouponGeneration(Integer quantity, String description, BigDecimal discountValue, LocalDateTime expirationDate, Boolean published) {
+        this(quantity, description, discountValue, expirationDate, published, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.util.List;
+
+public record CouponPage(
+        List<CouponResponse> items,
+        String nextCursor
+) {}
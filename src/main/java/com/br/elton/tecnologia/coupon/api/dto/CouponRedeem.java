@@ -0,0 +1,6 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+public record CouponRedeem(
+        String customerId
+) {
+}
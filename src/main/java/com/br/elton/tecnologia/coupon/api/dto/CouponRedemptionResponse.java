@@ -0,0 +1,13 @@
+package com.br.elton.tecnologia.coupon.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record CouponRedemptionResponse(
+        UUID id,
+        UUID couponId,
+        String code,
+        String customerId,
+        LocalDateTime redeemedAt
+) {
+}
@@ -10,5 +10,7 @@ public record CouponResponse(
         String description,
         BigDecimal discountValue,
         LocalDateTime expirationDate,
-        Boolean published
-) {}
\ No newline at end of file
+        Boolean published,
+        Integer maxUses,
+        Integer maxUsesPerCustomer
+) {}
@@ -1,5 +1,7 @@
 package com.br.elton.tecnologia.coupon.api.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,8 +13,20 @@ import java.time.OffsetDateTime;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(BussinesException.class)
     public ResponseEntity<ApiError> handleBusinessException(BussinesException ex, HttpServletRequest request) {
+        Counter.builder("coupon.business.errors")
+                .description("Erros de negócio devolvidos como 400, por mensagem")
+                .tag("reason", ex.getMessage() != null ? ex.getMessage() : "none")
+                .register(meterRegistry)
+                .increment();
+
         ApiError body = new ApiError(
                 OffsetDateTime.now(),
                 HttpStatus.BAD_REQUEST.value(),
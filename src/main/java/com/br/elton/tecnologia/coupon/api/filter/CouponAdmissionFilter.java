@@ -0,0 +1,193 @@
+package com.br.elton.tecnologia.coupon.api.filter;
+
+import com.br.elton.tecnologia.coupon.api.exception.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Controle de admissão das rotas {@code /coupon}, antes de qualquer acesso ao banco:
+ * <ul>
+ *     <li>limite de taxa por cliente em {@link CouponRateLimiter}, respondendo {@code 429} com {@code Retry-After};</li>
+ *     <li>limite de requisições simultâneas na instância, respondendo {@code 503} na hora em vez de enfileirar
+ *     threads à espera do pool de conexões.</li>
+ * </ul>
+ * O cliente é a chave de {@code X-API-Key}, se estiver em {@code coupon.rate-limit.api-keys}, ou o IP de origem.
+ * Chaves desconhecidas não contam: senão bastaria trocar a chave a cada requisição para escapar do limite.
+ */
+@Component
+public class CouponAdmissionFilter extends OncePerRequestFilter {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+    private static final String BASE_PATH = "/coupon";
+    private static final String EVENTS_PATH = "/coupon/events";
+    private static final String VALIDATE_PATH = "/coupon/validate/";
+    private static final String VALIDATION_STATS_PATH = "/coupon/validate/stats";
+
+    private final CouponRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean rateLimitEnabled;
+    private final Set<String> apiKeys;
+    private final Semaphore inFlight;
+    private final Duration overloadRetryAfter;
+
+    public CouponAdmissionFilter(CouponRateLimiter rateLimiter,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${coupon.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                                 @Value("${coupon.rate-limit.api-keys:}") Set<String> apiKeys,
+                                 @Value("${coupon.admission.max-concurrent:100}") int maxConcurrent,
+                                 @Value("${coupon.admission.retry-after:PT1S}") Duration overloadRetryAfter) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.apiKeys = apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toUnmodifiableSet());
+        this.inFlight = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.overloadRetryAfter = overloadRetryAfter;
+        if (inFlight != null) {
+            Gauge.builder("coupon.admission.in-flight", inFlight, permits -> maxConcurrent - permits.availablePermits())
+                    .description("Requisições de /coupon em andamento, contadas para o limite de concorrência")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !path.equals(BASE_PATH) && !path.startsWith(BASE_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = pathOf(request);
+        if (rateLimitEnabled) {
+            CouponRateLimiter.Budget budget = budgetOf(request.getMethod(), path);
+            long waitNanos = rateLimiter.tryAcquire(budget, clientOf(request));
+            if (waitNanos > 0) {
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos),
+                        "Limite de requisições excedido, tente novamente mais tarde", "rate-limit", budget.name());
+                return;
+            }
+        }
+
+        // Conexões SSE ficam abertas por minutos e não ocupam o banco; contá-las esgotaria o limite.
+        if (inFlight == null || path.equals(EVENTS_PATH)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, overloadRetryAfter,
+                    "Servidor sobrecarregado, tente novamente mais tarde", "overload", "none");
+            return;
+        }
+
+        Runnable release = releaseOnce();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Respostas em streaming continuam em outra thread; a vaga só volta quando terminarem.
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    static CouponRateLimiter.Budget budgetOf(String method, String path) {
+        if ((path.startsWith(VALIDATE_PATH) && !path.equals(VALIDATION_STATS_PATH)) || path.endsWith("/redeem")) {
+            return CouponRateLimiter.Budget.VALIDATE;
+        }
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return CouponRateLimiter.Budget.READ;
+        }
+        return CouponRateLimiter.Budget.WRITE;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, Duration retryAfter,
+                        String message, String reason, String budget) throws IOException {
+        Counter.builder("coupon.admission.rejected")
+                .description("Requisições recusadas pelo controle de admissão, por motivo e orçamento")
+                .tag("reason", reason)
+                .tag("budget", budget)
+                .register(meterRegistry)
+                .increment();
+
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ApiError body = new ApiError(OffsetDateTime.now(), status.value(), status.getReasonPhrase(), message,
+                request.getRequestURI());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlight.release();
+            }
+        };
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
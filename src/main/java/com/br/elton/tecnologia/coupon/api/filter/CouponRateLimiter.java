@@ -0,0 +1,67 @@
+package com.br.elton.tecnologia.coupon.api.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Um {@link TokenBucket} por cliente e por tipo de operação, com orçamentos separados para leitura, escrita e
+ * validação de código. Os baldes ficam num cache limitado, para que clientes novos a cada requisição (IPs
+ * forjados, por exemplo) não façam a memória crescer sem controle; um balde ocioso por {@code idle-timeout} já
+ * estaria cheio de novo e pode ser descartado.
+ */
+@Component
+public class CouponRateLimiter {
+
+    public enum Budget {
+        READ,
+        WRITE,
+        /**
+         * Operações que recebem um código de cupom (validação e resgate): o orçamento mais baixo, contra
+         * tentativa e erro de códigos.
+         */
+        VALIDATE
+    }
+
+    private record Limit(double ratePerSecond, int capacity) {
+    }
+
+    private record ClientBudget(Budget budget, String client) {
+    }
+
+    private final Map<Budget, Limit> limits = new EnumMap<>(Budget.class);
+    private final Cache<ClientBudget, TokenBucket> buckets;
+
+    public CouponRateLimiter(@Value("${coupon.rate-limit.read.rate:50}") double readRate,
+                             @Value("${coupon.rate-limit.read.burst:100}") int readBurst,
+                             @Value("${coupon.rate-limit.write.rate:10}") double writeRate,
+                             @Value("${coupon.rate-limit.write.burst:20}") int writeBurst,
+                             @Value("${coupon.rate-limit.validate.rate:10}") double validateRate,
+                             @Value("${coupon.rate-limit.validate.burst:30}") int validateBurst,
+                             @Value("${coupon.rate-limit.max-clients:100000}") long maxClients,
+                             @Value("${coupon.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        limits.put(Budget.READ, new Limit(readRate, readBurst));
+        limits.put(Budget.WRITE, new Limit(writeRate, writeBurst));
+        limits.put(Budget.VALIDATE, new Limit(validateRate, validateBurst));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * @return zero se a requisição pode seguir; senão, quanto o cliente deve esperar, em nanossegundos
+     */
+    public long tryAcquire(Budget budget, String client) {
+        long now = System.nanoTime();
+        Limit limit = limits.get(budget);
+        TokenBucket bucket = buckets.get(new ClientBudget(budget, client),
+                key -> new TokenBucket(limit.ratePerSecond(), limit.capacity(), now));
+        return bucket.tryAcquire(now);
+    }
+}
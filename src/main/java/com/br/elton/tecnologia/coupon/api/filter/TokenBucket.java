@@ -0,0 +1,46 @@
+package com.br.elton.tecnologia.coupon.api.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket de {@code capacity} fichas repostas a {@code ratePerSecond} por segundo, sem lock. Em vez de contar
+ * fichas e guardar o horário da última reposição, o estado é um único instante (GCRA): o horário em que o balde
+ * estaria cheio de novo. Cada requisição empurra esse instante um intervalo de emissão para frente com
+ * compare-and-set, e é recusada se isso o levasse além da capacidade.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param nowNanos horário atual em {@link System#nanoTime()}; o balde começa cheio
+     */
+    TokenBucket(double ratePerSecond, int capacity, long nowNanos) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Taxa e capacidade do token bucket devem ser positivas");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = emissionIntervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param nowNanos horário atual em {@link System#nanoTime()}
+     * @return zero se a ficha foi consumida; senão, quanto falta para haver uma ficha, em nanossegundos
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + emissionIntervalNanos;
+            long overflow = next - nowNanos - capacityNanos;
+            if (overflow > 0) {
+                return overflow;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.br.elton.tecnologia.coupon.api.mapper;
 
 import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponEvent;
 import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
 import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
 
 public final class CouponMapper {
 
@@ -20,7 +22,9 @@ public final class CouponMapper {
                 coupon.getDescription(),
                 coupon.getDiscountValue(),
                 coupon.getExpirationDate(),
-                coupon.getPublished()
+                coupon.getPublished(),
+                coupon.getMaxUses(),
+                coupon.getMaxUsesPerCustomer()
         );
     }
 
@@ -31,6 +35,12 @@ public final class CouponMapper {
         coupon.setDiscountValue(couponCreated.discountValue());
         coupon.setExpirationDate(couponCreated.expirationDate());
         coupon.setPublished(couponCreated.published() != null ? couponCreated.published() : false);
+        coupon.setMaxUses(couponCreated.maxUses());
+        coupon.setMaxUsesPerCustomer(couponCreated.maxUsesPerCustomer());
         return coupon;
     }
-}
\ No newline at end of file
+
+    public static CouponEvent toEvent(CouponOutboxEvent event) {
+        return new CouponEvent(event.getId(), event.getType(), event.getCouponId(), event.getCode(), event.getOccurredAt());
+    }
+}
@@ -0,0 +1,20 @@
+package com.br.elton.tecnologia.coupon.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    static final int MAX_BUSINESS_ERROR_REASONS = 100;
+
+    /**
+     * O motivo dos erros de negócio vira tag; se alguma mensagem passar a carregar dados variáveis, as séries
+     * além do limite são descartadas em vez de crescerem sem controle.
+     */
+    @Bean
+    public MeterFilter businessErrorReasonLimit() {
+        return MeterFilter.maximumAllowableTags("coupon.business.errors", "reason", MAX_BUSINESS_ERROR_REASONS, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,138 @@
+package com.br.elton.tecnologia.coupon.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrega conexões das réplicas, em rodízio, para transações {@code readOnly} e do primário para todo o resto.
+ * Precisa ficar atrás de um {@code LazyConnectionDataSourceProxy}: a conexão só é pedida no primeiro comando,
+ * quando a transação já marcou se é somente leitura.
+ * <p>
+ * Duas regras limitam a leitura de dados atrasados ou indisponíveis:
+ * <ul>
+ *     <li>Depois do commit de qualquer transação de escrita nesta instância, as leituras vão para o primário
+ *     por {@code read-your-writes-window}, para que caches recarregados logo após uma escrita não guardem o
+ *     estado anterior da réplica.</li>
+ *     <li>Uma réplica que falha ao entregar conexão fica fora do rodízio por {@code replica-retry-after}; sem
+ *     réplica disponível a leitura vai para o primário.</li>
+ * </ul>
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesNanos;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final TransactionSynchronization writeTracker = new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                lastWriteAt = System.nanoTime();
+            }
+        }
+    };
+    private volatile long lastWriteAt;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                        Duration readYourWritesWindow, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.lastWriteAt = System.nanoTime() - readYourWritesNanos;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + (i + 1), replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (System.nanoTime() - lastWriteAt >= readYourWritesNanos) {
+                Connection connection = replicaConnection();
+                if (connection != null) {
+                    return connection;
+                }
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(writeTracker);
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Usado apenas por {@link #getConnection(String, String)}, que não passa pelas regras acima.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return PRIMARY;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Connection replicaConnection() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (System.nanoTime() - replica.downSince < retryAfterNanos) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.downSince = System.nanoTime();
+                log.warn("Réplica {} indisponível; leituras vão para as demais ou para o primário por {} ms",
+                        replica.name, retryAfterNanos / 1_000_000, e);
+            }
+        }
+        return null;
+    }
+
+    private final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long downSince;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.downSince = System.nanoTime() - retryAfterNanos;
+        }
+    }
+}
@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "coupon")
+@Table(
+        name = "coupon",
+        uniqueConstraints = @UniqueConstraint(name = Coupon.ACTIVE_CODE_CONSTRAINT, columnNames = "active_code")
+)
 @SuppressWarnings("unused")
 @Getter
 @Setter
@@ -23,6 +26,10 @@ import java.util.UUID;
 @ToString
 public class Coupon {
 
+    public static final String ACTIVE_CODE_CONSTRAINT = "uk_coupon_active_code";
+    public static final int CODE_LENGTH = 6;
+    private static final BigDecimal MIN_DISCOUNT = new BigDecimal("0.5");
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -32,6 +39,14 @@ public class Coupon {
     @Size(min = 6, max = 6)
     private String code;
 
+    /**
+     * Cópia do código enquanto o cupom não está deletado e {@code null} depois do soft delete.
+     * A unique constraint sobre esta coluna equivale a um índice único parcial {@code (code) WHERE deleted = false},
+     * que o H2 não suporta, e ignora os NULLs dos cupons deletados.
+     */
+    @Column(name = "active_code", length = 6)
+    private String activeCode;
+
     @Column(name = "description", nullable = false)
     @NotBlank
     private String description;
@@ -54,6 +69,41 @@ public class Coupon {
     @Builder.Default
     private Boolean deleted = false;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Última alteração visível do cupom, inclusive o soft delete; é o horário informado nos itens do snapshot de
+     * {@code GET /coupon/changes}, cuja ordem vem dos ids da outbox e não desta coluna.
+     * Os soft deletes em UPDATE do repositório também a atualizam; os contadores de uso não contam como alteração.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "max_uses")
+    private Integer maxUses;
+
+    @Column(name = "max_uses_per_customer")
+    private Integer maxUsesPerCustomer;
+
+    /**
+     * Usos já reservados pelas instâncias para resgate, sempre {@code <= maxUses}. Só muda por UPDATE condicional
+     * no repositório, nunca pela entidade, para que uma entidade carregada antes não sobrescreva o contador.
+     */
+    @Column(name = "reserved_uses", nullable = false, updatable = false)
+    @Builder.Default
+    private Integer reservedUses = 0;
+
+    /**
+     * Resgates efetivamente gravados em {@code coupon_redemption}; atualizado junto com cada lote gravado.
+     */
+    @Column(name = "redeemed_uses", nullable = false, updatable = false)
+    @Builder.Default
+    private Integer redeemedUses = 0;
+
     public boolean isDeleted() {
         return Boolean.TRUE.equals(this.deleted);
     }
@@ -63,15 +113,68 @@ public class Coupon {
             throw new IllegalStateException("Cupom já está deletado.");
         }
         this.deleted = true;
+        this.deletedAt = LocalDateTime.now();
+        this.updatedAt = this.deletedAt;
+        this.activeCode = null;
     }
 
     public void restore() {
         this.deleted = false;
+        this.deletedAt = null;
+        this.activeCode = this.code;
     }
 
+    /**
+     * Remove tudo que não é letra ou dígito ASCII e converte para maiúsculas, em uma única passagem.
+     * Um código que já está normalizado é devolvido como a mesma instância, sem alocação.
+     */
     public static String sanitizeCode(String code) {
         if (code == null) return null;
-        return code.replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
+
+        int length = code.length();
+        int index = 0;
+        while (index < length && isNormalized(code.charAt(index))) {
+            index++;
+        }
+        if (index == length) {
+            return code;
+        }
+
+        char[] sanitized = new char[length];
+        code.getChars(0, index, sanitized, 0);
+        int size = index;
+        for (; index < length; index++) {
+            char c = code.charAt(index);
+            if (isNormalized(c)) {
+                sanitized[size++] = c;
+            } else if (c >= 'a' && c <= 'z') {
+                sanitized[size++] = (char) (c - ('a' - 'A'));
+            }
+        }
+        return new String(sanitized, 0, size);
+    }
+
+    /**
+     * Indica se o código, depois de sanitizado, tem exatamente {@link #CODE_LENGTH} caracteres, sem montar a
+     * string sanitizada e parando no primeiro caractere além do limite.
+     */
+    public static boolean hasValidCodeLength(String code) {
+        if (code == null) return false;
+
+        int kept = 0;
+        for (int index = 0, length = code.length(); index < length; index++) {
+            char c = code.charAt(index);
+            if (isNormalized(c) || (c >= 'a' && c <= 'z')) {
+                if (++kept > CODE_LENGTH) {
+                    return false;
+                }
+            }
+        }
+        return kept == CODE_LENGTH;
+    }
+
+    private static boolean isNormalized(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
     }
 
     @PrePersist
@@ -80,23 +183,32 @@ public class Coupon {
         if (this.code != null) {
             this.code = sanitizeCode(this.code);
         }
+        this.activeCode = isDeleted() ? null : this.code;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        this.updatedAt = now;
     }
 
     public void validateForCreation() {
-        String sanitizedCode = sanitizeCode(this.code);
-        if (sanitizedCode == null) {
+        if (!hasValidCodeLength(this.code)) {
             throw new IllegalArgumentException("O código do cupom deve conter exatamente 6 caracteres alfanuméricos");
         }
 
-        if (sanitizedCode.length() != 6) {
-            throw new IllegalArgumentException("O código do cupom deve conter exatamente 6 caracteres alfanuméricos");
-        }
+        validateTerms();
+    }
 
+    /**
+     * Valida desconto, expiração e limites de uso, independentemente do código.
+     */
+    public void validateTerms() {
         if (this.discountValue == null) {
             throw new IllegalArgumentException("Desconto mínimo é 0.5");
         }
 
-        if (this.discountValue.compareTo(BigDecimal.valueOf(0.5)) < 0) {
+        if (this.discountValue.compareTo(MIN_DISCOUNT) < 0) {
             throw new IllegalArgumentException("Desconto mínimo é 0.5");
         }
 
@@ -107,5 +219,13 @@ public class Coupon {
         if (this.expirationDate.isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("A data de expiração deve ser uma data futura");
         }
+
+        if (this.maxUses != null && this.maxUses < 1) {
+            throw new IllegalArgumentException("O limite de usos do cupom deve ser maior que zero");
+        }
+
+        if (this.maxUsesPerCustomer != null && this.maxUsesPerCustomer < 1) {
+            throw new IllegalArgumentException("O limite de usos por cliente deve ser maior que zero");
+        }
     }
 }
\ No newline at end of file
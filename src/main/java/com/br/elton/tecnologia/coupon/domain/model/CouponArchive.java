@@ -0,0 +1,67 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cópia de um cupom expirado ou deletado removido da tabela principal pelo {@code CouponArchiveSweeper}.
+ * Mantém o mesmo ID do cupom original.
+ */
+@Entity
+@Table(name = "coupon_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CouponArchive {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "code", nullable = false, length = 6)
+    private String code;
+
+    @Column(name = "description", nullable = false)
+    private String description;
+
+    @Column(name = "discount_value", nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountValue;
+
+    @Column(name = "expiration_date", nullable = false)
+    private LocalDateTime expirationDate;
+
+    @Column(name = "published", nullable = false)
+    private Boolean published;
+
+    @Column(name = "deleted", nullable = false)
+    private Boolean deleted;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "max_uses")
+    private Integer maxUses;
+
+    @Column(name = "max_uses_per_customer")
+    private Integer maxUsesPerCustomer;
+
+    @Column(name = "redeemed_uses", nullable = false)
+    private Integer redeemedUses;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
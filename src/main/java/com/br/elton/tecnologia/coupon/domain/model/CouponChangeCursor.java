@@ -0,0 +1,43 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição da sincronização incremental: o último evento da outbox entregue e, enquanto a primeira sincronização
+ * não termina, o último cupom da foto inicial. Serializado como token opaco, como o {@link CouponCursor}.
+ *
+ * @param snapshotAfter último id da foto inicial já entregue; {@code null} depois que a foto termina
+ */
+public record CouponChangeCursor(long position, UUID snapshotAfter) {
+
+    private static final String SEPARATOR = "|";
+
+    public boolean inSnapshot() {
+        return snapshotAfter != null;
+    }
+
+    public String encode() {
+        String raw = position + SEPARATOR + (snapshotAfter != null ? snapshotAfter : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CouponChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+            String snapshotAfter = raw.substring(separator + 1);
+            long position = Long.parseLong(raw.substring(0, separator));
+            if (position < 0) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+            return new CouponChangeCursor(position, snapshotAfter.isEmpty() ? null : UUID.fromString(snapshotAfter));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+/**
+ * Permutação pseudoaleatória e bijetora do espaço de códigos de 6 caracteres alfanuméricos (36^6 valores).
+ * Uma rede de Feistel de 4 rodadas embaralha 32 bits e o resultado é "cycle-walked" até cair dentro do espaço,
+ * então índices distintos sempre geram códigos distintos sem nenhuma consulta ao banco.
+ * A chave precisa ser estável: trocá-la depois de emitir códigos quebra a garantia de unicidade.
+ */
+public final class CouponCodePermutation {
+
+    public static final int CODE_LENGTH = 6;
+    public static final long CODE_SPACE = 2_176_782_336L; // 36^6
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int ROUNDS = 4;
+    private static final int HALF_MASK = 0xFFFF;
+
+    private final int[] roundKeys = new int[ROUNDS];
+
+    public CouponCodePermutation(long key) {
+        long state = key;
+        for (int round = 0; round < ROUNDS; round++) {
+            state = mix64(state + 0x9E3779B97F4A7C15L);
+            roundKeys[round] = (int) state;
+        }
+    }
+
+    public String codeAt(long index) {
+        if (index < 0 || index >= CODE_SPACE) {
+            throw new IllegalArgumentException("Índice fora do espaço de códigos: " + index);
+        }
+
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= CODE_SPACE);
+
+        char[] code = new char[CODE_LENGTH];
+        for (int position = CODE_LENGTH - 1; position >= 0; position--) {
+            code[position] = ALPHABET[(int) (value % ALPHABET.length)];
+            value /= ALPHABET.length;
+        }
+        return new String(code);
+    }
+
+    private long encrypt(long value) {
+        int left = (int) (value >>> 16) & HALF_MASK;
+        int right = (int) value & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ roundFunction(right, roundKeys[round]);
+            left = right;
+            right = next;
+        }
+        return ((long) left << 16) | right;
+    }
+
+    private static int roundFunction(int half, int key) {
+        int h = half * 0x9E3779B1 ^ key;
+        h ^= h >>> 15;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & HALF_MASK;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,31 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Próximo índice livre da permutação de códigos. Cada geração reserva um intervalo contíguo
+ * com um único UPDATE, o que mantém instâncias concorrentes sem sobreposição.
+ */
+@Entity
+@Table(name = "coupon_code_sequence")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCodeSequence {
+
+    public static final int DEFAULT_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,41 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição de paginação por keyset: o último par (data, id) entregue ao cliente.
+ * É serializado como um token opaco (Base64 URL-safe) para que o formato possa mudar sem quebrar clientes.
+ */
+public record CouponCursor(LocalDateTime position, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static CouponCursor of(Coupon coupon) {
+        return new CouponCursor(coupon.getExpirationDate(), coupon.getId());
+    }
+
+    public String encode() {
+        String raw = position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CouponCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+            return new CouponCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Quantos resgates um cliente já fez de um cupom com {@code maxUsesPerCustomer}.
+ */
+@Entity
+@Table(name = "coupon_customer_usage")
+@IdClass(CouponCustomerUsage.Key.class)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponCustomerUsage {
+
+    @Id
+    @Column(name = "coupon_id", nullable = false)
+    private UUID couponId;
+
+    @Id
+    @Column(name = "customer_id", nullable = false, length = 64)
+    private String customerId;
+
+    @Column(name = "uses", nullable = false)
+    private int uses;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID couponId;
+        private String customerId;
+    }
+}
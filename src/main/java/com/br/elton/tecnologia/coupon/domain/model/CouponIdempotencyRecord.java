@@ -0,0 +1,36 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta de uma criação feita com {@code Idempotency-Key}, gravada em JSON quando
+ * {@code coupon.idempotency.persistent} está ligado. O id junta a operação e a chave ({@code CREATE:<chave>}).
+ */
+@Entity
+@Table(name = "coupon_idempotency")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponIdempotencyRecord {
+
+    @Id
+    @Column(name = "id", nullable = false, length = 300)
+    private String id;
+
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "response", nullable = false, length = 1_000_000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease de uma tarefa agendada que roda em uma instância por vez: {@code lockedBy} tem a tarefa até {@code lockedUntil}.
+ */
+@Entity
+@Table(name = "coupon_job_lock")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponJobLock {
+
+    @Id
+    @Column(name = "name", nullable = false, length = 64)
+    private String name;
+
+    @Column(name = "locked_by", nullable = false, length = 64)
+    private String lockedBy;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
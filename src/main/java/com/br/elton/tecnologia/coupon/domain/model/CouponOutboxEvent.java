@@ -0,0 +1,54 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento de ciclo de vida de um cupom na tabela de outbox. O id é crescente e serve de offset para quem
+ * consome o stream: um cliente que reconecta informa o último id recebido e continua dali.
+ */
+@Entity
+@Table(name = "coupon_outbox")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "coupon_id", nullable = false)
+    private UUID couponId;
+
+    @Column(name = "code", nullable = false, length = 6)
+    private String code;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        CREATED,
+        DELETED,
+        /**
+         * Cupom expirado ou deletado movido para {@code coupon_archive}.
+         */
+        ARCHIVED
+    }
+}
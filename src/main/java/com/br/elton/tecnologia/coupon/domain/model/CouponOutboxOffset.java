@@ -0,0 +1,27 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Id do último evento da outbox entregue a um consumidor durável.
+ */
+@Entity
+@Table(name = "coupon_outbox_offset")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponOutboxOffset {
+
+    @Id
+    @Column(name = "consumer", nullable = false, length = 64)
+    private String consumer;
+
+    @Column(name = "position", nullable = false)
+    private long position;
+}
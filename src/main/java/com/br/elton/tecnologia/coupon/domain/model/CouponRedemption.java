@@ -0,0 +1,59 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resgate de um cupom por um cliente. O ID é gerado na aplicação; por isso a entidade informa ao Spring Data
+ * que é nova, e o {@code save} não faz um SELECT antes do INSERT.
+ */
+@Entity
+@Table(name = "coupon_redemption")
+@Getter
+@NoArgsConstructor
+public class CouponRedemption implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "coupon_id", nullable = false)
+    private UUID couponId;
+
+    @Column(name = "customer_id", nullable = false, length = 64)
+    private String customerId;
+
+    @Column(name = "redeemed_at", nullable = false)
+    private LocalDateTime redeemedAt;
+
+    @Transient
+    private boolean persisted;
+
+    public CouponRedemption(UUID couponId, String customerId, LocalDateTime redeemedAt) {
+        this.id = UUID.randomUUID();
+        this.couponId = couponId;
+        this.customerId = customerId;
+        this.redeemedAt = redeemedAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void markPersisted() {
+        this.persisted = true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface CouponArchiveRepository extends JpaRepository<CouponArchive, UUID> {
+
+    @Modifying
+    @Query(
+            "insert into CouponArchive (id, code, description, discountValue, expirationDate, published, deleted, deletedAt, " +
+            "                           createdAt, updatedAt, maxUses, maxUsesPerCustomer, redeemedUses, archivedAt) " +
+            "select c.id, c.code, c.description, c.discountValue, c.expirationDate, c.published, c.deleted, c.deletedAt, " +
+            "       c.createdAt, c.updatedAt, c.maxUses, c.maxUsesPerCustomer, c.redeemedUses, :archivedAt " +
+            "  from Coupon c " +
+            " where c.id in :ids"
+    )
+    int copyFromCoupons(@Param("ids") Collection<UUID> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
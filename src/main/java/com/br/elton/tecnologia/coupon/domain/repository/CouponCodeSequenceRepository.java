@@ -0,0 +1,23 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponCodeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CouponCodeSequenceRepository extends JpaRepository<CouponCodeSequence, Integer> {
+
+    @Modifying
+    @Query("update CouponCodeSequence s set s.nextValue = s.nextValue + :count where s.id = :id")
+    int advance(@Param("id") Integer id, @Param("count") long count);
+
+    @Modifying
+    @Query("insert into CouponCodeSequence (id, nextValue) values (:id, :nextValue)")
+    void insert(@Param("id") Integer id, @Param("nextValue") long nextValue);
+
+    @Query("SELECT s.nextValue FROM CouponCodeSequence s WHERE s.id = :id")
+    long currentValue(@Param("id") Integer id);
+}
@@ -0,0 +1,39 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponCustomerUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface CouponCustomerUsageRepository extends JpaRepository<CouponCustomerUsage, CouponCustomerUsage.Key> {
+
+    /**
+     * Conta mais um uso só se o cliente ainda estiver abaixo do limite; a linha fica travada até o fim da transação,
+     * então resgates simultâneos do mesmo cliente, em qualquer instância, são aplicados um de cada vez.
+     */
+    @Modifying
+    @Query(
+            "UPDATE CouponCustomerUsage u SET u.uses = u.uses + 1 " +
+            " WHERE u.couponId = :couponId" +
+            "   AND u.customerId = :customerId" +
+            "   AND u.uses < :limit"
+    )
+    int incrementBelow(@Param("couponId") UUID couponId,
+                       @Param("customerId") String customerId,
+                       @Param("limit") int limit);
+
+    boolean existsByCouponIdAndCustomerId(UUID couponId, String customerId);
+
+    /**
+     * Primeiro resgate do cliente. Se outro resgate do mesmo cliente criar a linha ao mesmo tempo, falha com violação
+     * da chave primária.
+     */
+    @Modifying
+    @Query("insert into CouponCustomerUsage (couponId, customerId, uses) values (:couponId, :customerId, 1)")
+    int insertFirstUse(@Param("couponId") UUID couponId, @Param("customerId") String customerId);
+}
@@ -0,0 +1,35 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponIdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CouponIdempotencyRepository extends JpaRepository<CouponIdempotencyRecord, String> {
+
+    Optional<CouponIdempotencyRecord> findByIdAndCreatedAtAfter(String id, LocalDateTime after);
+
+    /**
+     * INSERT direto, sem o SELECT que o {@code save} faria antes por causa do id atribuído. Uma chave já gravada
+     * por outra instância falha com violação da chave primária.
+     */
+    @Modifying
+    @Query(
+            "insert into CouponIdempotencyRecord (id, fingerprint, response, createdAt) " +
+            "values (:id, :fingerprint, :response, :createdAt)"
+    )
+    int insert(@Param("id") String id,
+               @Param("fingerprint") String fingerprint,
+               @Param("response") String response,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM CouponIdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,39 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponJobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CouponJobLockRepository extends JpaRepository<CouponJobLock, String> {
+
+    /**
+     * Assume ou renova o lease numa única instrução: só atualiza se o lease já venceu ou já é de {@code owner}.
+     */
+    @Modifying
+    @Query(
+            "UPDATE CouponJobLock l SET l.lockedBy = :owner, l.lockedUntil = :until " +
+            " WHERE l.name = :name" +
+            "   AND (l.lockedUntil < :now OR l.lockedBy = :owner)"
+    )
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("until") LocalDateTime until);
+
+    /**
+     * Primeiro lease de uma tarefa; se outra instância criar a linha ao mesmo tempo, falha com violação da chave primária.
+     */
+    @Modifying
+    @Query("insert into CouponJobLock (name, lockedBy, lockedUntil) values (:name, :owner, :until)")
+    int insert(@Param("name") String name, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE CouponJobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
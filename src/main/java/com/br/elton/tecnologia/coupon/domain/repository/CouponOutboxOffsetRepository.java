@@ -0,0 +1,25 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CouponOutboxOffsetRepository extends JpaRepository<CouponOutboxOffset, String> {
+
+    @Query("SELECT o.position FROM CouponOutboxOffset o WHERE o.consumer = :consumer")
+    Optional<Long> findPosition(@Param("consumer") String consumer);
+
+    /**
+     * Avança só se a posição ainda for {@code from}: se outra instância assumiu o consumidor e já avançou, não
+     * afeta nenhuma linha.
+     */
+    @Modifying
+    @Query("UPDATE CouponOutboxOffset o SET o.position = :to WHERE o.consumer = :consumer AND o.position = :from")
+    int advance(@Param("consumer") String consumer, @Param("from") long from, @Param("to") long to);
+}
@@ -0,0 +1,69 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CouponOutboxRepository extends JpaRepository<CouponOutboxEvent, Long> {
+
+    /**
+     * Um INSERT ... SELECT por bloco de cupons recém-gravados, sem carregar as entidades.
+     */
+    @Modifying
+    @Query(
+            "insert into CouponOutboxEvent (type, couponId, code, occurredAt) " +
+            "select com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent$Type.CREATED, c.id, c.code, c.createdAt " +
+            "  from Coupon c " +
+            " where c.id in :ids"
+    )
+    int recordCreated(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Recebe só os ids que esta operação acabou de deletar; quem chama já os conhece dentro da transação.
+     */
+    @Modifying
+    @Query(
+            "insert into CouponOutboxEvent (type, couponId, code, occurredAt) " +
+            "select com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent$Type.DELETED, c.id, c.code, c.deletedAt " +
+            "  from Coupon c " +
+            " where c.id in :ids" +
+            "   and c.deleted = true"
+    )
+    int recordDeleted(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Cupons recém-copiados para {@code coupon_archive} por esta operação, antes de saírem da tabela principal.
+     * O id é a chave de {@code coupon_archive}, então cada id do lote corresponde exatamente à cópia feita agora.
+     */
+    @Modifying
+    @Query(
+            "insert into CouponOutboxEvent (type, couponId, code, occurredAt) " +
+            "select com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent$Type.ARCHIVED, a.id, a.code, a.archivedAt " +
+            "  from CouponArchive a " +
+            " where a.id in :ids"
+    )
+    int recordArchived(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT e FROM CouponOutboxEvent e WHERE e.id > :after AND e.id <= :until ORDER BY e.id")
+    List<CouponOutboxEvent> findBetween(@Param("after") long after, @Param("until") long until, Limit limit);
+
+    @Query("SELECT coalesce(max(e.id), 0) FROM CouponOutboxEvent e")
+    long findLastId();
+
+    @Query("SELECT coalesce(min(e.id), 0) FROM CouponOutboxEvent e")
+    long findFirstId();
+
+    @Modifying
+    @Query("DELETE FROM CouponOutboxEvent e WHERE e.occurredAt < :before")
+    int deleteOccurredBefore(@Param("before") LocalDateTime before);
+}
@@ -1,45 +1,182 @@
 package com.br.elton.tecnologia.coupon.domain.repository;
 
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
 import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface CouponRepository extends JpaRepository<Coupon, UUID> {
+public interface CouponRepository extends JpaRepository<Coupon, UUID>, CouponSearchRepository {
+
+    /**
+     * Projeção das leituras de cupons válidos: o Hibernate monta o {@link CouponResponse} direto do ResultSet, sem
+     * instanciar a entidade nem registrá-la no contexto de persistência. Essas consultas também não disparam flush
+     * ({@code MANUAL}, o antigo {@code NEVER}), mesmo se chamadas dentro de uma transação de escrita.
+     * <p>
+     * {@code deleted} e {@code published} no ORDER BY são constantes pelo WHERE e não mudam a ordem; sem eles o H2
+     * não percebe que o índice {@code (deleted, published, expiration_date, id)} já entrega as linhas ordenadas e
+     * ordena a tabela inteira antes do LIMIT. O PostgreSQL descarta essas colunas da ordenação.
+     */
+    String RESPONSE_PROJECTION = "new com.br.elton.tecnologia.coupon.api.dto.CouponResponse(" +
+            "c.id, c.code, c.description, c.discountValue, c.expirationDate, c.published, c.maxUses, c.maxUsesPerCustomer)";
 
     @Query(
-            "SELECT COUNT(c) > 0 " +
+            "SELECT c.code " +
             " FROM Coupon c " +
             " WHERE c.deleted = false" +
-            "   AND c.code = :code"
+            "   AND c.code IN :codes"
     )
-    boolean existsByCode(String code);
+    Set<String> findExistingCodes(@Param("codes") Collection<String> codes);
 
     Optional<Coupon> findByCodeAndDeletedFalse(String code);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
     @Query(
-            "SELECT c " +
+            "SELECT " + RESPONSE_PROJECTION +
             " FROM Coupon c " +
             " WHERE c.deleted = false" +
             "   AND c.code = :code " +
             "   AND c.published = true " +
             "   AND c.expirationDate >= :date"
     )
-    Optional<Coupon> findValidByCode(@Param("code") String code, @Param("date") LocalDateTime date);
+    Optional<CouponResponse> findValidByCode(@Param("code") String code, @Param("date") LocalDateTime date);
+
+    /**
+     * {@link #findValidByCode} para vários códigos numa consulta; códigos sem cupom válido ficam de fora.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(
+            "SELECT " + RESPONSE_PROJECTION +
+            " FROM Coupon c " +
+            " WHERE c.deleted = false" +
+            "   AND c.code IN :codes " +
+            "   AND c.published = true " +
+            "   AND c.expirationDate >= :date"
+    )
+    List<CouponResponse> findValidByCodeIn(@Param("codes") Collection<String> codes, @Param("date") LocalDateTime date);
 
-    Optional<List<Coupon>> findAllByDeletedFalse();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(
+            "SELECT " + RESPONSE_PROJECTION +
+            " FROM Coupon c " +
+            " WHERE c.deleted = false" +
+            "   AND c.published = true" +
+            "   AND c.expirationDate >= :now" +
+            " ORDER BY c.deleted, c.published, c.expirationDate, c.id"
+    )
+    List<CouponResponse> findValidPage(@Param("now") LocalDateTime now, Limit limit);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(
+            "SELECT " + RESPONSE_PROJECTION +
+            " FROM Coupon c " +
+            " WHERE c.deleted = false" +
+            "   AND c.published = true" +
+            "   AND c.expirationDate >= :now" +
+            "   AND c.expirationDate >= :expirationDate" +
+            "   AND (c.expirationDate > :expirationDate" +
+            "        OR (c.expirationDate = :expirationDate AND c.id > :id))" +
+            " ORDER BY c.deleted, c.published, c.expirationDate, c.id"
+    )
+    List<CouponResponse> findValidPageAfter(@Param("expirationDate") LocalDateTime expirationDate,
+                                    @Param("id") UUID id,
+                                    @Param("now") LocalDateTime now,
+                                    Limit limit);
+
+    /**
+     * {@code now} vem do relógio da aplicação, o mesmo usado em {@code created_at}/{@code updated_at} nos inserts,
+     * para que as datas de um mesmo cupom sejam comparáveis entre si.
+     */
     @Modifying
     @Transactional
-    @Query("update Coupon c set c.deleted = true where c.id = :id and c.deleted = false")
-    int softDeleteById(@Param("id") UUID id);
+    @Query("update Coupon c set c.deleted = true, c.deletedAt = :now, c.updatedAt = :now, c.activeCode = null where c.id = :id and c.deleted = false")
+    int softDeleteById(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update Coupon c set c.deleted = true, c.deletedAt = :now, c.updatedAt = :now, c.activeCode = null where c.id in :ids and c.deleted = false")
+    int softDeleteByIdIn(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Primeira sincronização de {@code GET /coupon/changes}: todos os cupons, inclusive os deletados, em ordem de
+     * chave primária.
+     */
+    @Query("SELECT c FROM Coupon c WHERE c.id > :after ORDER BY c.id")
+    List<Coupon> findSnapshotAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("SELECT c.id FROM Coupon c WHERE c.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Os cupons do bloco que o soft delete de {@code deletedAt} acabou de marcar; {@code deletedAt} tem de estar
+     * na precisão da coluna.
+     */
+    @Query("SELECT c.id FROM Coupon c WHERE c.id IN :ids AND c.deleted = true AND c.deletedAt = :deletedAt")
+    List<UUID> findIdsDeletedAt(@Param("ids") Collection<UUID> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query(
+            "SELECT c.id " +
+            " FROM Coupon c " +
+            " WHERE c.deleted = false" +
+            "   AND c.expirationDate < :cutoff" +
+            " ORDER BY c.expirationDate"
+    )
+    List<UUID> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query(
+            "SELECT c.id " +
+            " FROM Coupon c " +
+            " WHERE c.deleted = true" +
+            "   AND c.deletedAt < :cutoff"
+    )
+    List<UUID> findDeletedIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from Coupon c where c.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT c.maxUses - c.reservedUses FROM Coupon c WHERE c.id = :id AND c.deleted = false AND c.maxUses IS NOT NULL")
+    Optional<Integer> findUnreservedUses(@Param("id") UUID id);
+
+    /**
+     * Reserva {@code count} usos apenas se o total reservado continuar dentro de {@code maxUses}; o UPDATE
+     * condicional é o que garante que instâncias concorrentes nunca reservam mais do que o limite.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Coupon c set c.reservedUses = c.reservedUses + :count where c.id = :id and c.reservedUses + :count <= c.maxUses")
+    int reserveUses(@Param("id") UUID id, @Param("count") int count);
+
+    @Modifying
+    @Transactional
+    @Query("update Coupon c set c.reservedUses = c.reservedUses - :count where c.id = :id and c.reservedUses >= :count")
+    int releaseUses(@Param("id") UUID id, @Param("count") int count);
+
+    /**
+     * Recalcula {@code redeemedUses} a partir dos resgates gravados: o contador se corrige sozinho mesmo que uma
+     * atualização anterior tenha se perdido.
+     */
+    @Modifying
+    @Query(
+            "update Coupon c set c.redeemedUses = " +
+            "       (select count(r) from CouponRedemption r where r.couponId = c.id) " +
+            " where c.id in :ids"
+    )
+    int refreshRedeemedUses(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,21 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Consultas montadas com Criteria a partir de {@link CouponSpecifications}; implementado por
+ * {@link CouponSearchRepositoryImpl} e exposto pelo {@link CouponRepository}.
+ */
+public interface CouponSearchRepository {
+
+    /**
+     * Cupons que atendem {@code specification}, em ordem de {@code (expirationDate, id)}, lidos por um cursor JDBC
+     * em blocos de {@value CouponSearchRepositoryImpl#FETCH_SIZE} linhas e projetados como em
+     * {@link CouponRepository#RESPONSE_PROJECTION}. Precisa de uma transação aberta.
+     */
+    Stream<CouponResponse> streamBy(Specification<Coupon> specification);
+}
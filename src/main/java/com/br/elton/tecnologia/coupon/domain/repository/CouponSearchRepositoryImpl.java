@@ -0,0 +1,43 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * A ordenação inclui {@code deleted} e {@code published} pelo mesmo motivo descrito em
+ * {@link CouponRepository#RESPONSE_PROJECTION}.
+ */
+@RequiredArgsConstructor
+class CouponSearchRepositoryImpl implements CouponSearchRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<CouponResponse> streamBy(Specification<Coupon> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CouponResponse> query = cb.createQuery(CouponResponse.class);
+        Root<Coupon> root = query.from(Coupon.class);
+        query.select(cb.construct(CouponResponse.class,
+                        root.get("id"), root.get("code"), root.get("description"), root.get("discountValue"),
+                        root.get("expirationDate"), root.get("published"), root.get("maxUses"), root.get("maxUsesPerCustomer")))
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("deleted")), cb.asc(root.get("published")),
+                        cb.asc(root.get("expirationDate")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,60 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Predicados de busca de cupons. Os filtros opcionais devolvem {@code null} quando o valor não foi informado,
+ * que o {@link Specification#and} ignora.
+ * <p>
+ * {@code deleted} e {@code published} são comparados com literais, e não com parâmetros, para que o PostgreSQL
+ * possa usar os índices parciais {@code WHERE deleted = false} também em planos genéricos.
+ */
+public final class CouponSpecifications {
+
+    private CouponSpecifications() {
+    }
+
+    /**
+     * Mesmo predicado de {@link CouponRepository#findValidByCode}: não deletado, publicado e não expirado em {@code now}.
+     */
+    public static Specification<Coupon> valid(LocalDateTime now) {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("deleted"), cb.literal(false)),
+                cb.equal(root.get("published"), cb.literal(true)),
+                cb.greaterThanOrEqualTo(root.get("expirationDate"), now));
+    }
+
+    /**
+     * Prefixo sobre {@code active_code}, que nos cupons não deletados é igual ao código e tem índice próprio.
+     * O prefixo é sanitizado como o código; depois disso só restam letras e dígitos, sem curingas do LIKE.
+     */
+    public static Specification<Coupon> codeStartsWith(String prefix) {
+        String sanitized = Coupon.sanitizeCode(prefix);
+        if (sanitized == null || sanitized.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("activeCode"), sanitized + "%");
+    }
+
+    public static Specification<Coupon> discountBetween(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> min == null ? cb.lessThanOrEqualTo(root.get("discountValue"), max)
+                : max == null ? cb.greaterThanOrEqualTo(root.get("discountValue"), min)
+                : cb.between(root.get("discountValue"), min, max);
+    }
+
+    public static Specification<Coupon> expiresBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> from == null ? cb.lessThanOrEqualTo(root.get("expirationDate"), to)
+                : to == null ? cb.greaterThanOrEqualTo(root.get("expirationDate"), from)
+                : cb.between(root.get("expirationDate"), from, to);
+    }
+}
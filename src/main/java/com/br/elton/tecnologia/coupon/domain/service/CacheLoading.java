@@ -0,0 +1,41 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+final class CacheLoading {
+
+    private CacheLoading() {
+    }
+
+    /**
+     * Carrega o valor na thread que chamou, fora do lock do mapa do cache. Com {@code Cache.get(key, loader)}
+     * a consulta ao banco roda dentro de um bloco {@code synchronized} do {@code ConcurrentHashMap}, o que
+     * prende a thread portadora de uma thread virtual durante todo o I/O. Aqui o mapa só guarda um future;
+     * quem chega enquanto a carga está em andamento espera o mesmo resultado, sem consultar o banco de novo.
+     */
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> value = cache.get(key, (k, executor) -> loading);
+        if (value == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.repository.CouponArchiveRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Move periodicamente para {@code coupon_archive} os cupons expirados há mais de {@code expired-retention}
+ * e os deletados há mais de {@code deleted-retention}. Cada lote é copiado e removido numa transação curta;
+ * a pausa entre lotes e o limite de lotes por execução mantêm a taxa de escrita e o tempo de lock controlados.
+ * Na mesma transação cada cupom arquivado vira um evento {@code ARCHIVED} na outbox.
+ * <p>
+ * Só uma instância arquiva por vez, com o lease {@value #JOB} de {@link CouponJobLockService}: duas instâncias
+ * pegariam o mesmo lote e a segunda cópia para {@code coupon_archive} falharia na chave primária. O lease é
+ * renovado antes de cada lote, e a execução para se ele tiver sido perdido.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coupon.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class CouponArchiveSweeper {
+
+    static final String JOB = "coupon-archive";
+
+    private final CouponRepository couponRepository;
+    private final CouponArchiveRepository couponArchiveRepository;
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final CouponListCache couponListCache;
+    private final CouponJobLockService couponJobLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pauseBetweenBatches;
+    private final Duration expiredRetention;
+    private final Duration deletedRetention;
+    private final Duration lockLease;
+
+    public CouponArchiveSweeper(CouponRepository couponRepository,
+                                CouponArchiveRepository couponArchiveRepository,
+                                CouponOutboxRepository couponOutboxRepository,
+                                CouponListCache couponListCache,
+                                CouponJobLockService couponJobLockService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${coupon.archive.batch-size:500}") int batchSize,
+                                @Value("${coupon.archive.max-batches-per-run:100}") int maxBatchesPerRun,
+                                @Value("${coupon.archive.pause-between-batches:PT0.2S}") Duration pauseBetweenBatches,
+                                @Value("${coupon.archive.expired-retention:P1D}") Duration expiredRetention,
+                                @Value("${coupon.archive.deleted-retention:P30D}") Duration deletedRetention,
+                                @Value("${coupon.archive.lock-lease:PT5M}") Duration lockLease) {
+        this.couponRepository = couponRepository;
+        this.couponArchiveRepository = couponArchiveRepository;
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.couponListCache = couponListCache;
+        this.couponJobLockService = couponJobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseBetweenBatches = pauseBetweenBatches;
+        this.expiredRetention = expiredRetention;
+        this.deletedRetention = deletedRetention;
+        this.lockLease = lockLease;
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.archive.interval:PT5M}", initialDelayString = "${coupon.archive.initial-delay:PT1M}")
+    public void sweep() {
+        if (!couponJobLockService.tryAcquire(JOB, lockLease)) {
+            return;
+        }
+        try {
+            sweepLocked();
+        } finally {
+            couponJobLockService.release(JOB);
+        }
+    }
+
+    private void sweepLocked() {
+        LocalDateTime now = LocalDateTime.now();
+        int budget = maxBatchesPerRun;
+
+        SweepResult expired = archive(cutoff -> couponRepository.findExpiredIds(cutoff, Limit.of(batchSize)),
+                now.minus(expiredRetention), budget);
+        SweepResult deleted = archive(cutoff -> couponRepository.findDeletedIds(cutoff, Limit.of(batchSize)),
+                now.minus(deletedRetention), budget - expired.batches());
+
+        if (expired.archived() + deleted.archived() > 0) {
+            couponListCache.invalidate();
+            log.info("Arquivados {} cupons expirados e {} cupons deletados", expired.archived(), deleted.archived());
+        }
+    }
+
+    private SweepResult archive(Function<LocalDateTime, List<UUID>> nextBatch, LocalDateTime cutoff, int budget) {
+        int archived = 0;
+        int batches = 0;
+        while (batches < budget) {
+            if (!couponJobLockService.tryAcquire(JOB, lockLease)) {
+                log.warn("Lease do arquivamento perdido; a execução para aqui");
+                break;
+            }
+            Integer moved = transactionTemplate.execute(status -> {
+                List<UUID> ids = nextBatch.apply(cutoff);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                couponArchiveRepository.copyFromCoupons(ids, LocalDateTime.now());
+                couponOutboxRepository.recordArchived(ids);
+                return couponRepository.deleteAllByIdIn(ids);
+            });
+            batches++;
+            archived += moved != null ? moved : 0;
+
+            if (moved == null || moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        return new SweepResult(archived, batches);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record SweepResult(int archived, int batches) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkItemResult;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkReport;
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Criação de cupons em lote. Os itens são consumidos sob demanda e processados em blocos de
+ * {@code coupon.bulk.chunk-size}: validação em memória, uma única consulta de duplicidade por bloco
+ * e inserção com batching JDBC, cada bloco em sua própria transação.
+ */
+@Service
+@Observed(name = "coupon.operation")
+public class CouponBulkService {
+
+    private final CouponRepository couponRepository;
+    private final EntityManager entityManager;
+    private final CouponValidationCache couponValidationCache;
+    private final CouponListCache couponListCache;
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CouponBulkService(CouponRepository couponRepository,
+                             EntityManager entityManager,
+                             CouponValidationCache couponValidationCache,
+                             CouponListCache couponListCache,
+                             CouponOutboxRepository couponOutboxRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${coupon.bulk.chunk-size:500}") int chunkSize) {
+        this.couponRepository = couponRepository;
+        this.entityManager = entityManager;
+        this.couponValidationCache = couponValidationCache;
+        this.couponListCache = couponListCache;
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param items itens a criar; se o iterador lançar {@link IllegalArgumentException} o item é reportado
+     *              como inválido e a leitura é interrompida, preservando os blocos já gravados.
+     */
+    public CouponBulkReport createAll(Iterator<CouponCreated> items) {
+        List<CouponBulkItemResult> results = new ArrayList<>();
+        List<CouponCreated> chunk = new ArrayList<>(chunkSize);
+        int nextIndex = 0;
+
+        while (true) {
+            CouponCreated item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                item = items.next();
+            } catch (IllegalArgumentException e) {
+                results.addAll(createChunk(nextIndex - chunk.size(), chunk));
+                results.add(CouponBulkItemResult.failed(nextIndex, null, "Item com formato inválido"));
+                chunk.clear();
+                break;
+            }
+
+            chunk.add(item);
+            nextIndex++;
+            if (chunk.size() == chunkSize) {
+                results.addAll(createChunk(nextIndex - chunk.size(), chunk));
+                chunk.clear();
+            }
+        }
+        results.addAll(createChunk(nextIndex - chunk.size(), chunk));
+
+        int created = (int) results.stream()
+                .filter(result -> result.status() == CouponBulkItemResult.Status.CREATED)
+                .count();
+        return new CouponBulkReport(results.size(), created, results.size() - created, results);
+    }
+
+    private List<CouponBulkItemResult> createChunk(int firstIndex, List<CouponCreated> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+
+        CouponBulkItemResult[] results = new CouponBulkItemResult[chunk.size()];
+        List<Coupon> candidates = new ArrayList<>(chunk.size());
+        List<Integer> candidatePositions = new ArrayList<>(chunk.size());
+        Set<String> seenCodes = new HashSet<>();
+
+        for (int position = 0; position < chunk.size(); position++) {
+            CouponCreated item = chunk.get(position);
+            int index = firstIndex + position;
+            if (item == null) {
+                results[position] = CouponBulkItemResult.failed(index, null, "Item com formato inválido");
+                continue;
+            }
+
+            Coupon coupon = CouponMapper.toEntity(item);
+            try {
+                coupon.validateForCreation();
+            } catch (IllegalArgumentException e) {
+                results[position] = CouponBulkItemResult.failed(index, item.code(), e.getMessage());
+                continue;
+            }
+
+            String sanitizedCode = Coupon.sanitizeCode(item.code());
+            if (!seenCodes.add(sanitizedCode)) {
+                results[position] = CouponBulkItemResult.failed(index, sanitizedCode, "Código duplicado no lote");
+                continue;
+            }
+
+            coupon.setCode(sanitizedCode);
+            candidates.add(coupon);
+            candidatePositions.add(position);
+        }
+
+        if (!candidates.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertCandidates(firstIndex, candidates, candidatePositions, results));
+            } catch (DataIntegrityViolationException e) {
+                if (!CouponService.isActiveCodeViolation(e)) {
+                    markFailed(firstIndex, candidates, candidatePositions, results);
+                } else {
+                    // Outra requisição gravou um dos códigos entre a consulta de duplicidade e o insert: o bloco foi
+                    // desfeito, então cada item é gravado sozinho para que só o código disputado falhe.
+                    insertOneByOne(firstIndex, candidates, candidatePositions, results);
+                }
+            } catch (DataAccessException e) {
+                markFailed(firstIndex, candidates, candidatePositions, results);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void insertOneByOne(int firstIndex, List<Coupon> candidates, List<Integer> candidatePositions, CouponBulkItemResult[] results) {
+        for (int i = 0; i < candidates.size(); i++) {
+            Coupon coupon = candidates.get(i);
+            int position = candidatePositions.get(i);
+            // O id gerado na tentativa desfeita faria o save tratar o cupom como existente.
+            coupon.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        insertCandidates(firstIndex, List.of(coupon), List.of(position), results));
+            } catch (DataIntegrityViolationException e) {
+                results[position] = CouponBulkItemResult.failed(firstIndex + position, coupon.getCode(),
+                        CouponService.isActiveCodeViolation(e) ? "Já existe um cupom com este código" : "Falha ao gravar o lote");
+            } catch (DataAccessException e) {
+                results[position] = CouponBulkItemResult.failed(firstIndex + position, coupon.getCode(), "Falha ao gravar o lote");
+            }
+        }
+    }
+
+    private static void markFailed(int firstIndex, List<Coupon> candidates, List<Integer> candidatePositions, CouponBulkItemResult[] results) {
+        for (int i = 0; i < candidates.size(); i++) {
+            int position = candidatePositions.get(i);
+            results[position] = CouponBulkItemResult.failed(firstIndex + position, candidates.get(i).getCode(), "Falha ao gravar o lote");
+        }
+    }
+
+    private void insertCandidates(int firstIndex, List<Coupon> candidates, List<Integer> candidatePositions, CouponBulkItemResult[] results) {
+        Set<String> existingCodes = couponRepository.findExistingCodes(candidates.stream().map(Coupon::getCode).toList());
+
+        List<Coupon> toInsert = new ArrayList<>(candidates.size());
+        List<Integer> insertPositions = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Coupon coupon = candidates.get(i);
+            int position = candidatePositions.get(i);
+            if (existingCodes.contains(coupon.getCode())) {
+                results[position] = CouponBulkItemResult.failed(firstIndex + position, coupon.getCode(), "Já existe um cupom com este código");
+            } else {
+                toInsert.add(coupon);
+                insertPositions.add(position);
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            // saveAllAndFlush passa pelo proxy do repositório, que traduz a violação de unicidade em DataIntegrityViolationException.
+            couponRepository.saveAllAndFlush(toInsert);
+            entityManager.clear();
+            couponOutboxRepository.recordCreated(toInsert.stream().map(Coupon::getId).toList());
+        }
+
+        for (int i = 0; i < toInsert.size(); i++) {
+            Coupon coupon = toInsert.get(i);
+            int position = insertPositions.get(i);
+            results[position] = CouponBulkItemResult.created(firstIndex + position, coupon.getCode(), coupon.getId());
+            couponValidationCache.invalidate(coupon.getCode());
+        }
+        if (!toInsert.isEmpty()) {
+            couponListCache.invalidate();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponChange;
+import com.br.elton.tecnologia.coupon.api.dto.CouponChanges;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponChangeCursor;
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sincronização incremental pela outbox: cada cupom criado, deletado ou arquivado depois do cursor, em ordem de
+ * id do evento, com o estado atual do cupom. A primeira chamada, sem cursor, entrega antes uma foto dos cupons
+ * em ordem de chave primária e guarda a posição da outbox do início da foto; o que mudar durante a foto
+ * vem depois pela outbox.
+ * <p>
+ * Só são lidos eventos até {@link CouponOutboxRelay#position()}, abaixo da qual todo id já fez commit ou foi
+ * desfeito: o cursor não passa de um evento que ainda vai aparecer, seja qual for a duração da transação que o
+ * gravou ou a diferença entre os relógios das instâncias. A exceção são ids sem commit por mais de
+ * {@code coupon.outbox.gap-timeout}, que o relay dá como desfeitos.
+ * <p>
+ * A leitura pode ir para uma réplica. Numa réplica atrasada pode faltar um id abaixo dessa posição; nesse caso a
+ * página é relida no primário, onde um id que falta é de uma transação desfeita.
+ */
+@Service
+@Transactional(readOnly = true)
+@Observed(name = "coupon.operation")
+public class CouponChangeService {
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final UUID ORIGIN = new UUID(0, 0);
+
+    private final CouponRepository couponRepository;
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final CouponOutboxRelay couponOutboxRelay;
+    private final CouponMetrics couponMetrics;
+    private final TransactionTemplate primaryTemplate;
+
+    public CouponChangeService(CouponRepository couponRepository,
+                               CouponOutboxRepository couponOutboxRepository,
+                               CouponOutboxRelay couponOutboxRelay,
+                               CouponMetrics couponMetrics,
+                               PlatformTransactionManager transactionManager) {
+        this.couponRepository = couponRepository;
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.couponOutboxRelay = couponOutboxRelay;
+        this.couponMetrics = couponMetrics;
+        this.primaryTemplate = new TransactionTemplate(transactionManager);
+        // Transação própria e sem readOnly: é o que leva a leitura para o primário.
+        this.primaryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CouponChanges listChanges(String since, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BussinesException("O limite da página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+
+        CouponChangeCursor after;
+        if (since != null && !since.isBlank()) {
+            try {
+                after = CouponChangeCursor.decode(since);
+            } catch (IllegalArgumentException e) {
+                throw new BussinesException(e.getMessage());
+            }
+        } else {
+            after = new CouponChangeCursor(couponOutboxRelay.position(), ORIGIN);
+        }
+
+        CouponChanges changes = after.inSnapshot() ? snapshotPage(after, pageSize) : outboxPage(after, pageSize);
+        couponMetrics.recordListSize("changes", changes.changes().size());
+        return changes;
+    }
+
+    private CouponChanges snapshotPage(CouponChangeCursor after, int pageSize) {
+        List<Coupon> coupons = couponRepository.findSnapshotAfter(after.snapshotAfter(), Limit.of(pageSize + 1));
+        boolean hasMore = coupons.size() > pageSize;
+        List<Coupon> page = hasMore ? coupons.subList(0, pageSize) : coupons;
+
+        List<CouponChange> changes = page.stream().map(coupon -> toChange(coupon, coupon.getUpdatedAt())).toList();
+        CouponChangeCursor next = hasMore
+                ? new CouponChangeCursor(after.position(), page.get(page.size() - 1).getId())
+                : new CouponChangeCursor(after.position(), null);
+        return new CouponChanges(changes, next.encode(), hasMore || couponOutboxRelay.position() > after.position());
+    }
+
+    private CouponChanges outboxPage(CouponChangeCursor after, int pageSize) {
+        long firstId = couponOutboxRepository.findFirstId();
+        if (firstId > after.position() + 1) {
+            throw new BussinesException("Cursor anterior às alterações guardadas; sincronize de novo sem o parâmetro since");
+        }
+
+        long until = couponOutboxRelay.position();
+        List<CouponOutboxEvent> events = couponOutboxRepository.findBetween(after.position(), until, Limit.of(pageSize));
+        EventPage page = hasGap(after.position(), events)
+                ? primaryTemplate.execute(status -> toPage(couponOutboxRepository.findBetween(after.position(), until, Limit.of(pageSize))))
+                : toPage(events);
+        if (page.events() == 0) {
+            return new CouponChanges(List.of(), after.encode(), false);
+        }
+        return new CouponChanges(page.changes(), new CouponChangeCursor(page.lastId(), null).encode(),
+                page.events() == pageSize && page.lastId() < until);
+    }
+
+    private static boolean hasGap(long after, List<CouponOutboxEvent> events) {
+        long expected = after + 1;
+        for (CouponOutboxEvent event : events) {
+            if (event.getId() != expected) {
+                return true;
+            }
+            expected++;
+        }
+        return false;
+    }
+
+    /**
+     * Um cupom que aparece em mais de um evento da página vem uma vez só, na posição do último evento.
+     */
+    private EventPage toPage(List<CouponOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return new EventPage(List.of(), 0, 0);
+        }
+        Map<UUID, Coupon> coupons = couponRepository.findAllById(events.stream().map(CouponOutboxEvent::getCouponId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Coupon::getId, Function.identity()));
+
+        Map<UUID, CouponChange> latest = new LinkedHashMap<>();
+        for (CouponOutboxEvent event : events) {
+            Coupon coupon = coupons.get(event.getCouponId());
+            latest.remove(event.getCouponId());
+            latest.put(event.getCouponId(), coupon != null
+                    ? toChange(coupon, event.getOccurredAt())
+                    : new CouponChange(CouponChange.Type.DELETED, event.getCouponId(), event.getCode(), event.getOccurredAt(), null));
+        }
+        return new EventPage(List.copyOf(latest.values()), events.size(), events.get(events.size() - 1).getId());
+    }
+
+    private static CouponChange toChange(Coupon coupon, LocalDateTime changedAt) {
+        if (coupon.isDeleted()) {
+            return new CouponChange(CouponChange.Type.DELETED, coupon.getId(), coupon.getCode(), changedAt, null);
+        }
+        return new CouponChange(CouponChange.Type.UPSERTED, coupon.getId(), coupon.getCode(), changedAt,
+                CouponMapper.toResponse(coupon));
+    }
+
+    /**
+     * @param events quantos eventos foram lidos, antes de juntar os do mesmo cupom
+     * @param lastId id do último evento lido
+     */
+    private record EventPage(List<CouponChange> changes, int events, long lastId) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCodePermutation;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCodeSequence;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponCodeSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emite códigos únicos percorrendo a {@link CouponCodePermutation} a partir de um contador persistido.
+ * O intervalo é reservado em uma transação curta e independente, então o lock da linha do contador
+ * dura um único UPDATE mesmo quando a geração é grande.
+ * <p>
+ * A chave ({@code coupon.generator.key}) não tem valor padrão: com ela qualquer um calcula os códigos emitidos,
+ * então vem do ambiente ou de um secret, e a aplicação não sobe sem ela.
+ */
+@Component
+public class CouponCodeGenerator {
+
+    private final CouponCodeSequenceRepository sequenceRepository;
+    private final CouponCodePermutation permutation;
+    private final TransactionTemplate reservationTransaction;
+
+    public CouponCodeGenerator(CouponCodeSequenceRepository sequenceRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${coupon.generator.key:}") String key) {
+        this.sequenceRepository = sequenceRepository;
+        this.permutation = new CouponCodePermutation(parseKey(key));
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    static long parseKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("Chave do gerador de códigos não configurada: defina COUPON_GENERATOR_KEY "
+                    + "(coupon.generator.key) com um número secreto");
+        }
+        try {
+            return Long.parseLong(key.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Chave do gerador de códigos inválida: coupon.generator.key deve ser um número inteiro de 64 bits", e);
+        }
+    }
+
+    public List<String> nextCodes(int count) {
+        long start = reserve(count);
+        List<String> codes = new ArrayList<>(count);
+        for (long index = start; index < start + count; index++) {
+            codes.add(permutation.codeAt(index));
+        }
+        return codes;
+    }
+
+    private long reserve(int count) {
+        long start;
+        try {
+            start = reservationTransaction.execute(status -> reserveInTransaction(count));
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou a linha do contador ao mesmo tempo; agora o UPDATE encontra a linha.
+            start = reservationTransaction.execute(status -> reserveInTransaction(count));
+        }
+
+        if (start + count > CouponCodePermutation.CODE_SPACE) {
+            throw new BussinesException("O espaço de códigos disponíveis para geração foi esgotado");
+        }
+        return start;
+    }
+
+    private long reserveInTransaction(int count) {
+        if (sequenceRepository.advance(CouponCodeSequence.DEFAULT_ID, count) == 0) {
+            sequenceRepository.insert(CouponCodeSequence.DEFAULT_ID, count);
+            return 0;
+        }
+        return sequenceRepository.currentValue(CouponCodeSequence.DEFAULT_ID) - count;
+    }
+}
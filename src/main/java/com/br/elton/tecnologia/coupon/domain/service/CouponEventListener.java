@@ -0,0 +1,20 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+
+import java.util.List;
+
+/**
+ * Recebe, em cada instância, os eventos da outbox a partir do momento em que ela subiu, lidos pelo
+ * {@link CouponOutboxRelay}. Serve para repassar eventos a quem está conectado à instância, como os clientes de
+ * Server-Sent Events; o que a instância perdeu enquanto estava fora deve ser lido da outbox.
+ * <p>
+ * Para entregar cada evento uma vez a um destino externo, como um broker, use {@link CouponEventPublisher}.
+ */
+public interface CouponEventListener {
+
+    /**
+     * @param events lote em ordem crescente de id
+     */
+    void onEvents(List<CouponOutboxEvent> events);
+}
@@ -0,0 +1,22 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destino durável dos eventos da outbox, por exemplo um publicador para um broker. Basta registrar um bean para
+ * receber os eventos pelo {@link CouponOutboxPublisherRelay}.
+ * <p>
+ * Só a instância com o lease do relay entrega, e a posição fica no banco: cada evento sai de uma instância só e
+ * nenhum se perde num restart ou numa troca de instância. A entrega é pelo menos uma vez: se qualquer publicador
+ * lançar exceção, ou a instância cair antes de gravar a posição, o lote inteiro é reenviado a todos, então o id
+ * do evento deve ser usado para descartar repetições.
+ */
+public interface CouponEventPublisher {
+
+    /**
+     * @param events lote em ordem crescente de id
+     */
+    void publish(List<CouponOutboxEvent> events);
+}
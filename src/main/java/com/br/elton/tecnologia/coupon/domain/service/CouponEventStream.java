@@ -0,0 +1,182 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener que repassa os eventos da outbox aos clientes conectados por Server-Sent Events.
+ * <p>
+ * O relay só enfileira os eventos; o envio de cada cliente roda no executor da aplicação, um lote por vez e em
+ * ordem, então um cliente lento não atrasa os demais. Quem acumula mais de {@code coupon.events.max-pending}
+ * eventos é desconectado e, ao reconectar com {@code Last-Event-ID}, recebe o que perdeu direto da outbox.
+ */
+@Slf4j
+@Component
+public class CouponEventStream implements CouponEventListener {
+
+    private final CouponOutboxRelay couponOutboxRelay;
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int maxPending;
+    private final int replayBatchSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public CouponEventStream(CouponOutboxRelay couponOutboxRelay,
+                             CouponOutboxRepository couponOutboxRepository,
+                             @Qualifier("applicationTaskExecutor") Executor executor,
+                             @Value("${coupon.events.timeout:PT30M}") Duration timeout,
+                             @Value("${coupon.events.max-pending:1000}") int maxPending,
+                             @Value("${coupon.outbox.batch-size:500}") int replayBatchSize) {
+        this.couponOutboxRelay = couponOutboxRelay;
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxPending = maxPending;
+        this.replayBatchSize = replayBatchSize;
+    }
+
+    /**
+     * @param lastEventId último evento recebido pelo cliente; {@code null} para receber só os eventos a partir de agora
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = lastEventId != null
+                ? new Subscriber(emitter, lastEventId, true)
+                : new Subscriber(emitter, couponOutboxRelay.position(), false);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // O replay roda depois do registro: um lote publicado durante o replay já está na fila do cliente.
+        if (subscriber.replay) {
+            subscriber.schedule();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onEvents(List<CouponOutboxEvent> events) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(events);
+        }
+    }
+
+    /**
+     * Comentário periódico para manter a conexão aberta em proxies e detectar clientes que já foram embora.
+     */
+    @Scheduled(fixedDelayString = "${coupon.events.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * Só uma tarefa de envio por cliente roda por vez ({@code scheduled}); {@code lastSentId} e {@code replay}
+     * são lidos e alterados apenas por ela.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<CouponOutboxEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private long lastSentId;
+        private boolean replay;
+
+        Subscriber(SseEmitter emitter, long lastSentId, boolean replay) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+            this.replay = replay;
+        }
+
+        void offer(List<CouponOutboxEvent> events) {
+            if (pendingCount.addAndGet(events.size()) > maxPending) {
+                log.debug("Cliente do stream de eventos desconectado por acumular mais de {} eventos", maxPending);
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.addAll(events);
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (replay) {
+                        replayFromOutbox();
+                        replay = false;
+                    }
+                    CouponOutboxEvent event;
+                    while ((event = pending.poll()) != null) {
+                        pendingCount.decrementAndGet();
+                        send(event);
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    scheduled.set(false);
+                } while ((!pending.isEmpty() || heartbeatDue) && scheduled.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        /**
+         * Lê da outbox tudo o que o relay já entregou depois do último id do cliente; o que o relay publicar
+         * durante o replay também está na fila e é descartado pelo id.
+         */
+        private void replayFromOutbox() throws IOException {
+            List<CouponOutboxEvent> events;
+            do {
+                events = couponOutboxRepository.findBetween(lastSentId, couponOutboxRelay.position(), Limit.of(replayBatchSize));
+                for (CouponOutboxEvent event : events) {
+                    send(event);
+                }
+            } while (events.size() == replayBatchSize);
+        }
+
+        private void send(CouponOutboxEvent event) throws IOException {
+            if (event.getId() <= lastSentId) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(event.getType().name())
+                    .data(CouponMapper.toEvent(event)));
+            lastSentId = event.getId();
+        }
+    }
+}
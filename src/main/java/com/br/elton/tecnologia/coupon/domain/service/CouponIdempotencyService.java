@@ -0,0 +1,175 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkReport;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.CouponIdempotencyRecord;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponIdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Execução única das criações de cupom feitas com {@code Idempotency-Key}.
+ * <p>
+ * A resposta de cada execução bem-sucedida fica num cache limitado e com TTL; um reenvio com a mesma chave recebe
+ * essa resposta direto da memória, sem consultar os cupons nem validar de novo. Reenvios que chegam enquanto a
+ * primeira execução está em andamento esperam por ela em vez de executar outra vez. Falhas não são guardadas, então
+ * o reenvio de uma criação que falhou executa de novo.
+ * <p>
+ * Com {@code coupon.idempotency.persistent} a resposta também é gravada no banco, logo depois da execução, e vale
+ * para reenvios que chegam a outra instância ou depois de um restart. A espera por execuções em andamento continua
+ * sendo por instância.
+ */
+@Slf4j
+@Service
+public class CouponIdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    public enum Operation {
+        CREATE,
+        BULK_CREATE
+    }
+
+    /**
+     * @param replayed se a resposta veio de uma execução anterior com a mesma chave
+     */
+    public record Result<T>(T response, boolean replayed) {
+    }
+
+    private record Key(Operation operation, String idempotencyKey) {
+
+        String id() {
+            return operation + ":" + idempotencyKey;
+        }
+    }
+
+    /**
+     * @param weight peso no limite do cache: 1 por cupom da resposta
+     */
+    private record Completed(String fingerprint, Object response, int weight) {
+    }
+
+    private final CouponIdempotencyRepository couponIdempotencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final AsyncCache<Key, Completed> responses;
+
+    public CouponIdempotencyService(CouponIdempotencyRepository couponIdempotencyRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${coupon.idempotency.ttl:PT24H}") Duration ttl,
+                                    @Value("${coupon.idempotency.max-weight:100000}") long maxWeight,
+                                    @Value("${coupon.idempotency.persistent:false}") boolean persistent) {
+        this.couponIdempotencyRepository = couponIdempotencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxWeight)
+                .<Key, Completed>weigher((key, completed) -> completed.weight())
+                .buildAsync();
+    }
+
+    /**
+     * @param fingerprint hash do corpo da requisição; para a execução original é pedido depois de {@code action},
+     *                    para que corpos lidos em streaming possam ser resumidos enquanto são consumidos
+     * @throws BussinesException se a chave for inválida ou já tiver sido usada com outro corpo
+     */
+    public <T> Result<T> execute(Operation operation, String idempotencyKey, Class<T> responseType,
+                                 Supplier<T> action, Supplier<String> fingerprint) {
+        String keyValue = idempotencyKey != null ? idempotencyKey.trim() : "";
+        if (keyValue.isEmpty() || keyValue.length() > MAX_KEY_LENGTH) {
+            throw new BussinesException("A Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        boolean[] executed = new boolean[1];
+        Completed completed = CacheLoading.get(responses, new Key(operation, keyValue), key -> {
+            Completed persisted = findPersisted(key, responseType);
+            if (persisted != null) {
+                return persisted;
+            }
+            T response = action.get();
+            executed[0] = true;
+            Completed done = new Completed(fingerprint.get(), response, weightOf(response));
+            persist(key, done);
+            return done;
+        });
+
+        if (executed[0]) {
+            return new Result<>(responseType.cast(completed.response()), false);
+        }
+        if (!completed.fingerprint().equals(fingerprint.get())) {
+            throw new BussinesException("Idempotency-Key já usada em uma requisição diferente");
+        }
+        return new Result<>(responseType.cast(completed.response()), true);
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.idempotency.purge-interval:PT1H}", initialDelayString = "${coupon.idempotency.purge-interval:PT1H}")
+    public void purge() {
+        if (!persistent) {
+            return;
+        }
+        Integer purged = transactionTemplate.execute(status ->
+                couponIdempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+        if (purged != null && purged > 0) {
+            log.info("Removidas {} respostas de Idempotency-Key expiradas", purged);
+        }
+    }
+
+    private <T> Completed findPersisted(Key key, Class<T> responseType) {
+        if (!persistent) {
+            return null;
+        }
+        return couponIdempotencyRepository.findByIdAndCreatedAtAfter(key.id(), LocalDateTime.now().minus(ttl))
+                .map(stored -> {
+                    try {
+                        T response = objectMapper.readValue(stored.getResponse(), responseType);
+                        return new Completed(stored.getFingerprint(), response, weightOf(response));
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Os cupons já foram criados: uma falha aqui só é registrada, sem transformar a resposta em erro.
+     */
+    private void persist(Key key, Completed completed) {
+        if (!persistent) {
+            return;
+        }
+        try {
+            String response = objectMapper.writeValueAsString(completed.response());
+            transactionTemplate.executeWithoutResult(status -> couponIdempotencyRepository.insert(
+                    key.id(), completed.fingerprint(), response, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Idempotency-Key {} já gravada por outra instância", key.id());
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Falha ao gravar a resposta da Idempotency-Key {}", key.id(), e);
+        }
+    }
+
+    private static int weightOf(Object response) {
+        return response instanceof CouponBulkReport report ? 1 + report.items().size() : 1;
+    }
+}
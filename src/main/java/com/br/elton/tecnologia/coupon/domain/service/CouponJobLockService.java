@@ -0,0 +1,64 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.repository.CouponJobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lease no banco para tarefas agendadas que não podem rodar em duas instâncias ao mesmo tempo. Cada instância tem
+ * um id próprio; quem tem o lease deve renová-lo com {@link #tryAcquire} antes de cada etapa e parar se não
+ * conseguir, porque depois de {@code lease} sem renovação outra instância pode assumir.
+ * <p>
+ * Os horários são do relógio da aplicação, então o lease precisa ser bem maior que a diferença entre os relógios
+ * das instâncias.
+ */
+@Slf4j
+@Service
+public class CouponJobLockService {
+
+    private final CouponJobLockRepository couponJobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public CouponJobLockService(CouponJobLockRepository couponJobLockRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.couponJobLockRepository = couponJobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Transação própria e curta: o lease tem que valer para as outras instâncias já, não no fim da tarefa.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Assume o lease de {@code job} ou renova o que esta instância já tem, por mais {@code lease}.
+     *
+     * @return se esta instância tem o lease agora
+     */
+    public boolean tryAcquire(String job, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> couponJobLockRepository.acquire(job, owner, now, until) > 0
+                    || (!couponJobLockRepository.existsById(job) && couponJobLockRepository.insert(job, owner, until) > 0));
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou a primeira linha da tarefa ao mesmo tempo e ficou com o lease.
+            log.debug("Lease de {} criado por outra instância", job);
+            return false;
+        }
+    }
+
+    /**
+     * Libera o lease antes do vencimento, para que a próxima execução de outra instância não precise esperar.
+     */
+    public void release(String job) {
+        transactionTemplate.executeWithoutResult(status -> couponJobLockRepository.release(job, owner, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lista de cupons já serializada, reaproveitada entre escritas. Cada escrita incrementa a versão depois do commit
+ * e a próxima leitura remonta a lista; leituras entre escritas não tocam o banco nem o serializador.
+ * <p>
+ * O ETag é o hash do conteúdo, então instâncias diferentes com a mesma lista respondem o mesmo ETag. Escritas
+ * feitas em outra instância não passam pela versão local, por isso a lista também é remontada a cada
+ * {@code coupon.list-cache.ttl}. Listas maiores que {@code coupon.list-cache.max-size} não são guardadas.
+ * <p>
+ * A lista também muda sem escritas quando um cupom expira: o {@link ListWriter} informa até quando o conteúdo
+ * continua valendo e a lista é remontada a partir desse instante.
+ * <p>
+ * A versão gzip é comprimida uma vez na remontagem, e não a cada resposta como faria a compressão do servidor.
+ */
+@Component
+public class CouponListCache {
+
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final long maxBytes;
+    private final long ttlNanos;
+    private volatile Entry current;
+
+    public CouponListCache(@Value("${coupon.list-cache.max-size:16MB}") DataSize maxSize,
+                           @Value("${coupon.list-cache.ttl:PT30S}") Duration ttl) {
+        this.maxBytes = maxSize.toBytes();
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Conteúdo serializado da lista, o mesmo conteúdo comprimido em gzip, seu ETag e a data da última mudança de conteúdo.
+     */
+    public record Snapshot(byte[] body, byte[] gzipBody, String etag, Instant lastModified) {
+    }
+
+    @FunctionalInterface
+    public interface ListWriter {
+
+        /**
+         * @return último instante em que o conteúdo escrito continua valendo sem escritas, ou {@code null} se não expira
+         */
+        Instant writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    public void invalidate() {
+        TransactionCallbacks.afterCommit(version::incrementAndGet);
+    }
+
+    /**
+     * Retorna a lista em cache ou a remonta com {@code writer}. Só uma thread remonta por vez; as demais esperam
+     * e recebem o mesmo resultado. Vazio quando a lista passa do tamanho máximo e deve ser enviada em streaming.
+     */
+    public Optional<Snapshot> get(ListWriter writer) throws IOException {
+        Entry entry = current;
+        if (isFresh(entry)) {
+            return Optional.ofNullable(entry.snapshot());
+        }
+
+        rebuildLock.lock();
+        try {
+            entry = current;
+            if (isFresh(entry)) {
+                return Optional.ofNullable(entry.snapshot());
+            }
+
+            // A versão é lida antes da consulta: uma escrita durante a remontagem invalida o resultado.
+            long buildVersion = version.get();
+            long builtAt = System.nanoTime();
+            Built built = build(writer, entry != null ? entry.snapshot() : null);
+            current = new Entry(buildVersion, builtAt, built.validUntil(), built.snapshot());
+            return Optional.ofNullable(built.snapshot());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry != null && entry.version() == version.get() && System.nanoTime() - entry.builtAt() < ttlNanos
+                && (entry.validUntil() == null || !Instant.now().isAfter(entry.validUntil()));
+    }
+
+    private Built build(ListWriter writer, Snapshot previous) throws IOException {
+        LimitedBuffer buffer = new LimitedBuffer(maxBytes);
+        Instant validUntil;
+        try {
+            validUntil = writer.writeTo(buffer);
+        } catch (LimitExceeded e) {
+            return Built.TOO_LARGE;
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof LimitExceeded) {
+                return Built.TOO_LARGE;
+            }
+            throw e;
+        }
+
+        byte[] body = buffer.toByteArray();
+        String etag = hash(body);
+        Instant lastModified = previous != null && previous.etag().equals(etag)
+                ? previous.lastModified()
+                : Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return new Built(new Snapshot(body, gzip(body), etag, lastModified), validUntil);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param snapshot {@code null} quando a lista passou do tamanho máximo
+     */
+    private record Entry(long version, long builtAt, Instant validUntil, Snapshot snapshot) {
+    }
+
+    private record Built(Snapshot snapshot, Instant validUntil) {
+
+        static final Built TOO_LARGE = new Built(null, null);
+    }
+
+    private static final class LimitExceeded extends RuntimeException {
+        LimitExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class LimitedBuffer extends ByteArrayOutputStream {
+
+        private final long limit;
+
+        LimitedBuffer(long limit) {
+            super(8192);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            super.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            super.write(b, off, len);
+        }
+
+        private void ensureCapacity(int len) {
+            if (count + (long) len > limit) {
+                throw new LimitExceeded();
+            }
+        }
+    }
+}
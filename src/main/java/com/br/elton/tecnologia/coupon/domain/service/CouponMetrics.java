@@ -0,0 +1,34 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métricas de domínio que não saem da instrumentação automática: tempo e erros de cada operação vêm do
+ * {@code @Observed} dos serviços e o tempo de cada consulta vem das métricas de repositório do Spring Data.
+ */
+@Component
+public class CouponMetrics {
+
+    static final String LIST_SIZE = "coupon.list.size";
+
+    private final MeterRegistry meterRegistry;
+
+    public CouponMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Quantidade de cupons devolvida por uma listagem, para separar consulta lenta de resposta grande.
+     */
+    public void recordListSize(String operation, int size) {
+        DistributionSummary.builder(LIST_SIZE)
+                .description("Cupons retornados por chamada de listagem")
+                .baseUnit("coupons")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(size);
+    }
+}
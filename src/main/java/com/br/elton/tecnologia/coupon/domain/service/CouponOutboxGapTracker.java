@@ -0,0 +1,51 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ids da outbox são alocados no INSERT e não no commit, então um id menor pode aparecer depois de um maior. Ao
+ * encontrar um buraco a leitura para e espera até {@code gapTimeout} pela transação que ainda não fez commit;
+ * depois disso o buraco é tratado como rollback e ignorado.
+ * <p>
+ * Não é thread-safe: cada leitor da outbox tem o seu e o usa sob o próprio lock.
+ */
+@Slf4j
+final class CouponOutboxGapTracker {
+
+    private final long gapTimeoutNanos;
+    private long gapId = -1;
+    private long gapSeenAt;
+
+    CouponOutboxGapTracker(long gapTimeoutNanos) {
+        this.gapTimeoutNanos = gapTimeoutNanos;
+    }
+
+    /**
+     * Prefixo do lote sem buracos depois de {@code from}, exceto buracos que já passaram do tempo de espera.
+     */
+    List<CouponOutboxEvent> contiguous(long from, List<CouponOutboxEvent> fetched) {
+        List<CouponOutboxEvent> batch = new ArrayList<>(fetched.size());
+        long expected = from + 1;
+        for (CouponOutboxEvent event : fetched) {
+            if (event.getId() != expected) {
+                if (gapId != expected) {
+                    gapId = expected;
+                    gapSeenAt = System.nanoTime();
+                }
+                if (System.nanoTime() - gapSeenAt < gapTimeoutNanos) {
+                    break;
+                }
+                log.warn("Eventos {} a {} da outbox de cupons não apareceram no tempo de espera e foram ignorados",
+                        expected, event.getId() - 1);
+            }
+            gapId = -1;
+            batch.add(event);
+            expected = event.getId() + 1;
+        }
+        return batch;
+    }
+}
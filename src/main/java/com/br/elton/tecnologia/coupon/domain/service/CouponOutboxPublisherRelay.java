@@ -0,0 +1,109 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxOffsetRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Entrega a outbox aos {@link CouponEventPublisher}s em uma instância por vez: quem tem o lease
+ * {@value #JOB} lê a partir da posição gravada em {@code coupon_outbox_offset} e só a avança depois que todos os
+ * publicadores aceitaram o lote. Um restart ou a troca de instância retoma do último lote entregue.
+ * <p>
+ * O lease é renovado a cada lote e mantido entre execuções, para a entrega não trocar de instância a cada
+ * {@code coupon.outbox.poll-interval}; se a instância cair, outra assume depois de {@code coupon.outbox.publisher-lease}.
+ * Sem nenhum publicador registrado não faz nada.
+ */
+@Slf4j
+@Component
+public class CouponOutboxPublisherRelay {
+
+    static final String JOB = "coupon-outbox-publisher";
+    static final String CONSUMER = "publishers";
+
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final CouponOutboxOffsetRepository couponOutboxOffsetRepository;
+    private final CouponJobLockService couponJobLockService;
+    private final ObjectProvider<CouponEventPublisher> publishers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final CouponOutboxGapTracker gapTracker;
+    private final Duration lease;
+
+    public CouponOutboxPublisherRelay(CouponOutboxRepository couponOutboxRepository,
+                                      CouponOutboxOffsetRepository couponOutboxOffsetRepository,
+                                      CouponJobLockService couponJobLockService,
+                                      ObjectProvider<CouponEventPublisher> publishers,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${coupon.outbox.batch-size:500}") int batchSize,
+                                      @Value("${coupon.outbox.gap-timeout:PT30S}") Duration gapTimeout,
+                                      @Value("${coupon.outbox.publisher-lease:PT30S}") Duration lease) {
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.couponOutboxOffsetRepository = couponOutboxOffsetRepository;
+        this.couponJobLockService = couponJobLockService;
+        this.publishers = publishers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.gapTracker = new CouponOutboxGapTracker(gapTimeout.toNanos());
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.outbox.poll-interval:PT0.2S}")
+    public void relay() {
+        if (publishers.stream().findAny().isEmpty() || !couponJobLockService.tryAcquire(JOB, lease)) {
+            return;
+        }
+        long from = couponOutboxOffsetRepository.findPosition(CONSUMER)
+                .orElseThrow(() -> new IllegalStateException("Posição dos publicadores da outbox não encontrada"));
+        while (true) {
+            List<CouponOutboxEvent> batch = gapTracker.contiguous(from,
+                    couponOutboxRepository.findBetween(from, Long.MAX_VALUE, Limit.of(batchSize)));
+            if (batch.isEmpty() || !publish(batch) || !advance(from, batch.get(batch.size() - 1).getId())) {
+                return;
+            }
+            if (batch.size() < batchSize || !couponJobLockService.tryAcquire(JOB, lease)) {
+                return;
+            }
+            from = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        couponJobLockService.release(JOB);
+    }
+
+    private boolean publish(List<CouponOutboxEvent> batch) {
+        try {
+            publishers.orderedStream().forEach(publisher -> publisher.publish(batch));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao publicar {} eventos da outbox de cupons; nova tentativa na próxima execução", batch.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Se outra instância assumiu o lease enquanto este lote era publicado e já avançou a posição, o lote foi
+     * entregue duas vezes e esta instância para aqui.
+     */
+    private boolean advance(long from, long to) {
+        Integer advanced = transactionTemplate.execute(status -> couponOutboxOffsetRepository.advance(CONSUMER, from, to));
+        if (advanced == null || advanced == 0) {
+            log.warn("Posição dos publicadores da outbox alterada por outra instância; a execução para aqui");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,135 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lê a outbox em ordem de id, em lotes de {@code coupon.outbox.batch-size}, e entrega cada lote aos
+ * {@link CouponEventListener}s desta instância. A posição fica em memória e começa, quando a instância sobe, no
+ * fim do trecho sem buracos entre os últimos {@code coupon.outbox.startup-scan} ids e o último evento existente;
+ * eventos anteriores só são entregues a quem pede replay a partir de um id. A entrega durável, com posição no banco,
+ * é do {@link CouponOutboxPublisherRelay}.
+ * <p>
+ * Buracos de ids ainda sem commit são esperados até {@code coupon.outbox.gap-timeout}, ver {@link CouponOutboxGapTracker}.
+ * Um id sem commit mais antigo que a varredura da subida não é esperado: ela supõe que não há mais de
+ * {@code startup-scan} eventos gravados enquanto uma transação com evento continua aberta.
+ */
+@Slf4j
+@Component
+public class CouponOutboxRelay {
+
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final ObjectProvider<CouponEventListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final CouponOutboxGapTracker gapTracker;
+    private final Duration retention;
+    private final int startupScan;
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private volatile long position = -1;
+
+    public CouponOutboxRelay(CouponOutboxRepository couponOutboxRepository,
+                             ObjectProvider<CouponEventListener> listeners,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${coupon.outbox.batch-size:500}") int batchSize,
+                             @Value("${coupon.outbox.gap-timeout:PT30S}") Duration gapTimeout,
+                             @Value("${coupon.outbox.retention:P7D}") Duration retention,
+                             @Value("${coupon.outbox.startup-scan:1000}") int startupScan) {
+        this.couponOutboxRepository = couponOutboxRepository;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.gapTracker = new CouponOutboxGapTracker(gapTimeout.toNanos());
+        this.retention = retention;
+        this.startupScan = startupScan;
+    }
+
+    /**
+     * Id do último evento já entregue aos listeners; todo evento com id menor ou igual já está gravado.
+     */
+    public long position() {
+        long current = position;
+        if (current >= 0) {
+            return current;
+        }
+        relayLock.lock();
+        try {
+            return initializedPosition();
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.outbox.poll-interval:PT0.2S}")
+    public void relay() {
+        relayLock.lock();
+        try {
+            long from = initializedPosition();
+            List<CouponOutboxEvent> batch;
+            do {
+                List<CouponOutboxEvent> fetched = couponOutboxRepository.findBetween(from, Long.MAX_VALUE, Limit.of(batchSize));
+                batch = gapTracker.contiguous(from, fetched);
+                if (batch.isEmpty() || !publish(batch)) {
+                    return;
+                }
+                from = position;
+            } while (batch.size() == batchSize);
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.outbox.purge-interval:PT1H}", initialDelayString = "${coupon.outbox.purge-interval:PT1H}")
+    public void purge() {
+        Integer purged = transactionTemplate.execute(status ->
+                couponOutboxRepository.deleteOccurredBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Removidos {} eventos da outbox de cupons", purged);
+        }
+    }
+
+    /**
+     * O maior id pode ter feito commit antes de ids menores, então a posição inicial não é ele: é o fim do trecho
+     * contínuo dos últimos ids, e um buraco ali é esperado pelo {@link CouponOutboxGapTracker} como qualquer outro.
+     */
+    private long initializedPosition() {
+        if (position < 0) {
+            long lastId = couponOutboxRepository.findLastId();
+            long start = Math.max(0, Math.max(lastId - startupScan, couponOutboxRepository.findFirstId() - 1));
+            List<CouponOutboxEvent> committed = gapTracker.contiguous(start,
+                    couponOutboxRepository.findBetween(start, lastId, Limit.of(startupScan)));
+            position = committed.isEmpty() ? start : committed.get(committed.size() - 1).getId();
+        }
+        return position;
+    }
+
+    /**
+     * A posição avança antes da entrega: quem faz replay até {@link #position()} já vê o lote no banco, e o
+     * que também chegar pelo listener é descartado pelo id.
+     */
+    private boolean publish(List<CouponOutboxEvent> batch) {
+        long previous = position;
+        position = batch.get(batch.size() - 1).getId();
+        try {
+            listeners.orderedStream().forEach(listener -> listener.onEvents(batch));
+            return true;
+        } catch (RuntimeException e) {
+            position = previous;
+            log.warn("Falha ao repassar {} eventos da outbox de cupons; nova tentativa na próxima execução", batch.size(), e);
+            return false;
+        }
+    }
+}
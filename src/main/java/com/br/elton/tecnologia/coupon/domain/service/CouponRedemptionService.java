@@ -0,0 +1,227 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedeem;
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedemptionResponse;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.CouponRedemption;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponCustomerUsageRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRedemptionRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resgate de cupons sem lock da linha do cupom por requisição.
+ * <p>
+ * O limite total é garantido por reservas em blocos de {@code coupon.redemption.reservation-block} usos, feitas
+ * com um UPDATE condicional que nunca ultrapassa {@code max_uses}; cada resgate consome um uso do saldo local
+ * da instância ({@link CouponUsagePermits}). Usos reservados e não consumidos voltam ao banco quando o cupom fica
+ * ocioso ou a aplicação para; se a instância cair, eles ficam reservados e o cupom esgota antes do limite, nunca depois.
+ * <p>
+ * Cada resgate é gravado antes da resposta, numa transação curta que também conta o uso do cliente em
+ * {@code coupon_customer_usage} com um UPDATE condicional. O limite por cliente vale, portanto, entre instâncias e
+ * depois de uma queda; só a linha daquele cliente é travada, não a do cupom. O contador {@code redeemed_uses} do
+ * cupom, que tocaria a linha disputada, é recalculado dos resgates gravados em {@link #flush()}.
+ * <p>
+ * A validação inicial usa o cache de {@link CouponService#validate}, que pode estar alguns minutos atrasado ou ter
+ * vindo de uma réplica; por isso a transação que grava o resgate relê o cupom no primário e recusa um cupom
+ * deletado, despublicado ou expirado nesse meio tempo.
+ */
+@Slf4j
+@Service
+public class CouponRedemptionService {
+
+    static final int MAX_CUSTOMER_ID_LENGTH = 64;
+
+    private final CouponService couponService;
+    private final CouponRepository couponRepository;
+    private final CouponRedemptionRepository couponRedemptionRepository;
+    private final CouponCustomerUsageRepository couponCustomerUsageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int reservationBlock;
+    private final long exhaustedRecheckNanos;
+    private final Cache<UUID, CouponUsagePermits> permits;
+    private final Set<UUID> redeemedSinceFlush = ConcurrentHashMap.newKeySet();
+
+    public CouponRedemptionService(CouponService couponService,
+                                   CouponRepository couponRepository,
+                                   CouponRedemptionRepository couponRedemptionRepository,
+                                   CouponCustomerUsageRepository couponCustomerUsageRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${coupon.redemption.reservation-block:50}") int reservationBlock,
+                                   @Value("${coupon.redemption.exhausted-recheck:PT1S}") Duration exhaustedRecheck,
+                                   @Value("${coupon.redemption.idle-timeout:PT10M}") Duration idleTimeout) {
+        this.couponService = couponService;
+        this.couponRepository = couponRepository;
+        this.couponRedemptionRepository = couponRedemptionRepository;
+        this.couponCustomerUsageRepository = couponCustomerUsageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationBlock = reservationBlock;
+        this.exhaustedRecheckNanos = exhaustedRecheck.toNanos();
+        this.permits = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .<UUID, CouponUsagePermits>removalListener((couponId, usage, cause) -> {
+                    if (couponId != null && usage != null) {
+                        release(couponId, usage);
+                    }
+                })
+                .build();
+    }
+
+    @Observed(name = "coupon.operation")
+    public CouponRedemptionResponse redeem(String code, CouponRedeem couponRedeem) {
+        String customerId = couponRedeem != null && couponRedeem.customerId() != null ? couponRedeem.customerId().trim() : "";
+        if (customerId.isEmpty() || customerId.length() > MAX_CUSTOMER_ID_LENGTH) {
+            throw new BussinesException("O identificador do cliente deve ter entre 1 e " + MAX_CUSTOMER_ID_LENGTH + " caracteres");
+        }
+
+        CouponResponse coupon = couponService.validate(code);
+
+        CouponUsagePermits usage = null;
+        if (coupon.maxUses() != null) {
+            usage = acquireUse(coupon.id());
+            if (usage == null) {
+                throw new BussinesException("Limite de usos do cupom atingido");
+            }
+        }
+
+        CouponRedemption redemption = new CouponRedemption(coupon.id(), customerId, LocalDateTime.now());
+        try {
+            store(redemption, coupon.code());
+        } catch (RuntimeException e) {
+            if (usage != null) {
+                usage.giveBack();
+            }
+            throw e;
+        }
+        redeemedSinceFlush.add(coupon.id());
+        return new CouponRedemptionResponse(redemption.getId(), coupon.id(), coupon.code(), customerId, redemption.getRedeemedAt());
+    }
+
+    /**
+     * Recalcula {@code redeemed_uses} dos cupons resgatados desde a última execução, numa transação por lote.
+     * Se falhar, os cupons voltam para a próxima execução.
+     */
+    @Scheduled(fixedDelayString = "${coupon.redemption.flush-interval:PT1S}")
+    public void flush() {
+        if (redeemedSinceFlush.isEmpty()) {
+            return;
+        }
+        List<UUID> couponIds = new ArrayList<>(redeemedSinceFlush);
+        redeemedSinceFlush.removeAll(couponIds);
+        try {
+            transactionTemplate.executeWithoutResult(status -> couponRepository.refreshRedeemedUses(couponIds));
+        } catch (DataAccessException e) {
+            log.warn("Falha ao atualizar o contador de resgates de {} cupons; nova tentativa na próxima execução",
+                    couponIds.size(), e);
+            redeemedSinceFlush.addAll(couponIds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        permits.asMap().forEach(this::release);
+        permits.invalidateAll();
+    }
+
+    /**
+     * Relê o cupom no primário, grava o resgate e, se o cupom tiver limite por cliente, conta o uso do cliente na
+     * mesma transação. O primeiro resgate de um cliente cria a linha do contador; se dois chegarem juntos, o que
+     * perder a corrida pela chave primária refaz a transação e passa pelo UPDATE condicional.
+     */
+    private void store(CouponRedemption redemption, String code) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    CouponResponse coupon = couponRepository.findValidByCode(code, redemption.getRedeemedAt())
+                            .filter(current -> current.id().equals(redemption.getCouponId()))
+                            .orElseThrow(() -> new BussinesException("Cupom inválido ou expirado"));
+                    if (coupon.maxUsesPerCustomer() != null) {
+                        countCustomerUse(redemption.getCouponId(), redemption.getCustomerId(), coupon.maxUsesPerCustomer());
+                    }
+                    couponRedemptionRepository.save(redemption);
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void countCustomerUse(UUID couponId, String customerId, int limit) {
+        if (couponCustomerUsageRepository.incrementBelow(couponId, customerId, limit) == 1) {
+            return;
+        }
+        if (limit < 1 || couponCustomerUsageRepository.existsByCouponIdAndCustomerId(couponId, customerId)) {
+            throw new BussinesException("Limite de usos do cupom para este cliente atingido");
+        }
+        couponCustomerUsageRepository.insertFirstUse(couponId, customerId);
+    }
+
+    /**
+     * @return o saldo de onde o uso saiu, para devolvê-lo se o resgate não for gravado; {@code null} se o limite acabou
+     */
+    private CouponUsagePermits acquireUse(UUID couponId) {
+        while (true) {
+            CouponUsagePermits usage = permits.get(couponId, id -> new CouponUsagePermits(exhaustedRecheckNanos));
+            switch (usage.acquire(() -> reserveUses(couponId))) {
+                case ACQUIRED:
+                    return usage;
+                case EXHAUSTED:
+                    return null;
+                case RETIRED:
+                    permits.asMap().remove(couponId, usage);
+            }
+        }
+    }
+
+    /**
+     * Reserva até um bloco de usos. Se outra instância reservou entre a leitura e o UPDATE, o UPDATE não afeta
+     * nenhuma linha e a leitura é refeita com o saldo menor.
+     */
+    private int reserveUses(UUID couponId) {
+        while (true) {
+            int unreserved = couponRepository.findUnreservedUses(couponId).orElse(0);
+            if (unreserved <= 0) {
+                return 0;
+            }
+            int count = Math.min(reservationBlock, unreserved);
+            if (couponRepository.reserveUses(couponId, count) == 1) {
+                return count;
+            }
+        }
+    }
+
+    private void release(UUID couponId, CouponUsagePermits usage) {
+        int unused = usage.retire();
+        if (unused > 0) {
+            try {
+                couponRepository.releaseUses(couponId, unused);
+            } catch (DataAccessException e) {
+                log.warn("Não foi possível devolver {} usos reservados do cupom {}", unused, couponId, e);
+            }
+        }
+    }
+}
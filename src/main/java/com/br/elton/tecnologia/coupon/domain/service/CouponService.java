@@ -1,33 +1,71 @@
 package com.br.elton.tecnologia.coupon.domain.service;
 
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDelete;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDeleteReport;
 import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponFilter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.api.dto.CouponPage;
 import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
 import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
 import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
 import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCursor;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
 import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
-import jakarta.transaction.Transactional;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponSpecifications;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Observed(name = "coupon.operation")
 public class CouponService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
     private final CouponRepository couponRepository;
+    private final EntityManager entityManager;
+    private final CouponValidationCache couponValidationCache;
+    private final CouponValidationBatcher couponValidationBatcher;
+    private final CouponCodeGenerator couponCodeGenerator;
+    private final CouponListCache couponListCache;
+    private final CouponOutboxRepository couponOutboxRepository;
+    private final CouponMetrics couponMetrics;
 
-    public CouponResponse create(CouponCreated couponCreated) {
-        String sanitizedCode = Coupon.sanitizeCode(couponCreated.code());
+    @Value("${coupon.generator.max-quantity:10000}")
+    private int maxGenerationQuantity = 10_000;
 
-        if (couponRepository.existsByCode(sanitizedCode)) {
-            throw new BussinesException("Já existe um cupom com este código");
-        }
+    @Value("${coupon.bulk.chunk-size:500}")
+    private int chunkSize = 500;
 
+    /**
+     * Insere direto e deixa a unique constraint de código ativo decidir a duplicidade: uma ida ao banco
+     * a menos que o antigo "existe? então grava" e sem janela para duas criações concorrentes do mesmo código.
+     */
+    public CouponResponse create(CouponCreated couponCreated) {
         Coupon coupon = CouponMapper.toEntity(couponCreated);
 
         try {
@@ -36,31 +74,210 @@ public class CouponService {
             throw new BussinesException(e.getMessage());
         }
 
-        return CouponMapper.toResponse(couponRepository.save(coupon));
-    }
-
-    public List<CouponResponse> listValidCoupon() {
-        Optional<List<Coupon>> coupons =
-                couponRepository.findAllByDeletedFalse();
+        Coupon savedCoupon;
+        try {
+            savedCoupon = couponRepository.saveAndFlush(coupon);
+        } catch (DataIntegrityViolationException e) {
+            if (isActiveCodeViolation(e)) {
+                throw new BussinesException("Já existe um cupom com este código", e);
+            }
+            throw e;
+        }
+        couponOutboxRepository.recordCreated(List.of(savedCoupon.getId()));
 
-        return coupons
-                .map(couponList -> couponList.stream()
-                        .map(CouponMapper::toResponse)
-                        .toList())
-                .orElseThrow(() -> new BussinesException("Nenhum cupom válido encontrado!"));
+        couponValidationCache.invalidate(savedCoupon.getCode());
+        couponListCache.invalidate();
+        return CouponMapper.toResponse(savedCoupon);
     }
 
-    public Boolean deleteById(UUID id) {
-        Coupon coupon = couponRepository.findById(id)
-                .orElseThrow(() -> new BussinesException("Nenhum cupom encontrado com o ID informado!"));
+    /**
+     * Cria {@code quantity} cupons com códigos emitidos pelo {@link CouponCodeGenerator}. Os códigos vêm de uma
+     * permutação do espaço inteiro, então só colidem com códigos escolhidos manualmente; esses são descartados
+     * com uma consulta por bloco e repostos com novos códigos, sem sondar o banco código a código.
+     * Um código manual criado entre essa consulta e o insert desfaz a geração inteira, que pode ser repetida.
+     */
+    public List<CouponResponse> generate(CouponGeneration generation) {
+        int quantity = generation.quantity() != null ? generation.quantity() : 0;
+        if (quantity < 1 || quantity > maxGenerationQuantity) {
+            throw new BussinesException("A quantidade de cupons a gerar deve estar entre 1 e " + maxGenerationQuantity);
+        }
 
+        CouponCreated terms = new CouponCreated(null, generation.description(), generation.discountValue(),
+                generation.expirationDate(), generation.published(), generation.maxUses(), generation.maxUsesPerCustomer());
         try {
-            coupon.softDelete();
-        } catch (IllegalStateException e) {
+            CouponMapper.toEntity(terms).validateTerms();
+        } catch (IllegalArgumentException e) {
             throw new BussinesException(e.getMessage());
         }
 
-        couponRepository.save(coupon);
+        List<CouponResponse> generated = new ArrayList<>(quantity);
+        while (generated.size() < quantity) {
+            int missing = Math.min(quantity - generated.size(), chunkSize);
+            List<String> codes = couponCodeGenerator.nextCodes(missing);
+            Set<String> taken = couponRepository.findExistingCodes(codes);
+
+            List<Coupon> coupons = codes.stream()
+                    .filter(code -> !taken.contains(code))
+                    .map(code -> {
+                        Coupon coupon = CouponMapper.toEntity(terms);
+                        coupon.setCode(code);
+                        return coupon;
+                    })
+                    .toList();
+
+            try {
+                // saveAllAndFlush passa pelo proxy do repositório, que traduz a violação de unicidade.
+                couponRepository.saveAllAndFlush(coupons);
+            } catch (DataIntegrityViolationException e) {
+                if (isActiveCodeViolation(e)) {
+                    throw new BussinesException("Um código gerado foi criado ao mesmo tempo por outra requisição; gere os cupons de novo", e);
+                }
+                throw e;
+            }
+            entityManager.clear();
+            couponOutboxRepository.recordCreated(coupons.stream().map(Coupon::getId).toList());
+
+            for (Coupon coupon : coupons) {
+                generated.add(CouponMapper.toResponse(coupon));
+                couponValidationCache.invalidate(coupon.getCode());
+            }
+        }
+        couponListCache.invalidate();
+        return generated;
+    }
+
+    /**
+     * Valida o código sem abrir transação: com o cache aquecido a consulta não toca o banco. Quando consulta,
+     * a leitura é somente leitura e pode ir para uma réplica. Validações simultâneas do mesmo código esperam a
+     * mesma consulta no cache; códigos diferentes podem ser agrupados pelo {@link CouponValidationBatcher}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CouponResponse validate(String code) {
+        if (!Coupon.hasValidCodeLength(code)) {
+            throw new BussinesException("O código do cupom deve conter exatamente 6 caracteres alfanuméricos");
+        }
+        String sanitizedCode = Coupon.sanitizeCode(code);
+
+        return couponValidationCache
+                .get(sanitizedCode, couponValidationBatcher::findValidByCode)
+                .orElseThrow(() -> new BussinesException("Cupom inválido ou expirado"));
+    }
+
+    /**
+     * As linhas já vêm projetadas em {@link CouponResponse}; o cursor da próxima página sai do último item.
+     */
+    @Transactional(readOnly = true)
+    public CouponPage listValidCoupon(String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BussinesException("O limite da página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+
+        // Busca um registro a mais para saber se existe próxima página sem precisar de um COUNT.
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        LocalDateTime now = LocalDateTime.now();
+        List<CouponResponse> coupons;
+        if (cursor == null || cursor.isBlank()) {
+            coupons = couponRepository.findValidPage(now, fetchLimit);
+        } else {
+            CouponCursor after;
+            try {
+                after = CouponCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BussinesException(e.getMessage());
+            }
+            coupons = couponRepository.findValidPageAfter(after.position(), after.id(), now, fetchLimit);
+        }
+
+        boolean hasNext = coupons.size() > pageSize;
+        List<CouponResponse> page = hasNext ? coupons.subList(0, pageSize) : coupons;
+        CouponResponse last = hasNext ? page.get(page.size() - 1) : null;
+        String nextCursor = last != null ? new CouponCursor(last.expirationDate(), last.id()).encode() : null;
+        couponMetrics.recordListSize("page", page.size());
+
+        return new CouponPage(List.copyOf(page), nextCursor);
+    }
+
+    /**
+     * Percorre os cupons válidos (publicados, não deletados e não expirados) que atendem {@code filter} através de um
+     * cursor JDBC, entregando um por vez ao consumidor. Os filtros viram predicados SQL sobre colunas indexadas.
+     * As linhas são projetadas direto em {@link CouponResponse}: nenhuma entidade entra no contexto de persistência,
+     * que não cresce com o tamanho da tabela.
+     */
+    @Transactional(readOnly = true)
+    public void streamValidCoupon(CouponFilter filter, Consumer<CouponResponse> consumer) {
+        Specification<Coupon> specification = CouponSpecifications.valid(LocalDateTime.now())
+                .and(CouponSpecifications.codeStartsWith(filter.codePrefix()))
+                .and(CouponSpecifications.discountBetween(filter.minDiscount(), filter.maxDiscount()))
+                .and(CouponSpecifications.expiresBetween(filter.expiresFrom(), filter.expiresTo()));
+
+        int count = 0;
+        try (Stream<CouponResponse> coupons = couponRepository.streamBy(specification)) {
+            for (CouponResponse coupon : (Iterable<CouponResponse>) coupons::iterator) {
+                consumer.accept(coupon);
+                count++;
+            }
+        }
+        couponMetrics.recordListSize("all", count);
+    }
+
+    /**
+     * Soft delete com um único UPDATE condicional. Só quando nenhuma linha é afetada há uma leitura pela PK,
+     * para diferenciar cupom inexistente de cupom já deletado.
+     */
+    public Boolean deleteById(UUID id) {
+        if (couponRepository.softDeleteById(id, LocalDateTime.now()) == 0) {
+            if (couponRepository.existsById(id)) {
+                throw new BussinesException("Cupom já está deletado.");
+            }
+            throw new BussinesException("Nenhum cupom encontrado com o ID informado!");
+        }
+        couponOutboxRepository.recordDeleted(List.of(id));
+
+        couponValidationCache.invalidateById(id);
+        couponListCache.invalidate();
         return true;
     }
-}
\ No newline at end of file
+
+    public CouponBulkDeleteReport deleteAllById(CouponBulkDelete couponBulkDelete) {
+        Set<UUID> ids = couponBulkDelete.ids() != null ? new LinkedHashSet<>(couponBulkDelete.ids()) : Set.of();
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new BussinesException("Informe ao menos um ID de cupom");
+        }
+
+        // Na precisão da coluna: só um bloco incompleto relê os cupons que este UPDATE marcou, pelo deletedAt.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int deleted = 0;
+        List<UUID> notFound = new ArrayList<>();
+        List<UUID> idList = List.copyOf(ids);
+        for (int from = 0; from < idList.size(); from += chunkSize) {
+            List<UUID> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+            int affected = couponRepository.softDeleteByIdIn(chunk, now);
+            deleted += affected;
+            if (affected == chunk.size()) {
+                couponOutboxRepository.recordDeleted(chunk);
+                continue;
+            }
+            if (affected > 0) {
+                couponOutboxRepository.recordDeleted(couponRepository.findIdsDeletedAt(chunk, now));
+            }
+            Set<UUID> existing = couponRepository.findExistingIds(chunk);
+            chunk.stream().filter(id -> !existing.contains(id)).forEach(notFound::add);
+        }
+
+        couponValidationCache.invalidateByIds(ids);
+        couponListCache.invalidate();
+        return new CouponBulkDeleteReport(ids.size(), deleted, ids.size() - deleted - notFound.size(), notFound);
+    }
+
+    static boolean isActiveCodeViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Coupon.ACTIVE_CODE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
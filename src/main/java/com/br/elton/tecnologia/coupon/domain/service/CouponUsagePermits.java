@@ -0,0 +1,103 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Usos de um cupom já reservados no banco por esta instância. O caminho comum é um compare-and-set sobre o
+ * saldo local; só quem encontra o saldo zerado pega o lock para reservar o próximo bloco, e os demais
+ * esperam esse único UPDATE em vez de cada um disputar a linha do cupom.
+ */
+final class CouponUsagePermits {
+
+    enum Acquisition {
+        ACQUIRED,
+        EXHAUSTED,
+        /**
+         * O saldo já foi devolvido ao banco; quem chamou deve obter uma nova instância.
+         */
+        RETIRED
+    }
+
+    private final AtomicInteger available = new AtomicInteger();
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private final long exhaustedRecheckNanos;
+    private volatile long exhaustedUntil;
+    private boolean retired;
+
+    CouponUsagePermits(long exhaustedRecheckNanos) {
+        this.exhaustedRecheckNanos = exhaustedRecheckNanos;
+    }
+
+    /**
+     * @param reserve reserva um novo bloco no banco e retorna quantos usos obteve, ou zero se o limite acabou
+     */
+    Acquisition acquire(IntSupplier reserve) {
+        if (takeLocal()) {
+            return Acquisition.ACQUIRED;
+        }
+        if (exhaustedUntil - System.nanoTime() > 0) {
+            return Acquisition.EXHAUSTED;
+        }
+
+        refillLock.lock();
+        try {
+            if (retired) {
+                return Acquisition.RETIRED;
+            }
+            if (takeLocal()) {
+                return Acquisition.ACQUIRED;
+            }
+
+            int reserved = reserve.getAsInt();
+            if (reserved == 0) {
+                // Sem novas consultas ao banco por um intervalo: cupom esgotado em promoção recebe a maior carga.
+                exhaustedUntil = System.nanoTime() + exhaustedRecheckNanos;
+                return Acquisition.EXHAUSTED;
+            }
+            available.addAndGet(reserved - 1);
+            return Acquisition.ACQUIRED;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Devolve ao saldo local um uso obtido em {@link #acquire} que acabou não sendo usado. Se o saldo já foi
+     * devolvido ao banco, o uso continua reservado: o cupom esgota um uso antes, nunca depois.
+     */
+    void giveBack() {
+        refillLock.lock();
+        try {
+            if (!retired) {
+                available.incrementAndGet();
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Impede novas reservas e retorna o saldo que deve voltar para o banco.
+     */
+    int retire() {
+        refillLock.lock();
+        try {
+            retired = true;
+            return available.getAndSet(0);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private boolean takeLocal() {
+        int current;
+        while ((current = available.get()) > 0) {
+            if (available.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,120 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Junta numa única consulta {@code WHERE code IN (...)} as validações de códigos diferentes que chegam dentro de
+ * {@code coupon.validation-batch.window}. Consultas simultâneas do mesmo código já são unificadas antes, no
+ * {@link CouponValidationCache}; o lote reduz as idas ao banco quando muitos códigos distintos chegam juntos, como
+ * na abertura de uma promoção com cupons individuais.
+ * <p>
+ * Não há thread própria: quem abre o lote espera a janela passar (ou o lote encher), consulta todos os códigos e
+ * entrega cada resultado; os demais só esperam o seu. Com a janela zerada cada código é consultado na hora.
+ */
+@Component
+public class CouponValidationBatcher {
+
+    private final CouponRepository couponRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+    private Map<String, CompletableFuture<Optional<CouponResponse>>> open;
+
+    public CouponValidationBatcher(CouponRepository couponRepository,
+                                   @Value("${coupon.validation-batch.window:PT0S}") Duration window,
+                                   @Value("${coupon.validation-batch.max-size:100}") int maxBatchSize) {
+        this.couponRepository = couponRepository;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * @param code código já sanitizado
+     */
+    public Optional<CouponResponse> findValidByCode(String code) {
+        if (windowNanos <= 0 || maxBatchSize == 1) {
+            return couponRepository.findValidByCode(code, LocalDateTime.now());
+        }
+
+        CompletableFuture<Optional<CouponResponse>> result;
+        Map<String, CompletableFuture<Optional<CouponResponse>>> toLoad = null;
+        lock.lock();
+        try {
+            Map<String, CompletableFuture<Optional<CouponResponse>>> batch = open;
+            boolean leader = batch == null;
+            if (leader) {
+                batch = new LinkedHashMap<>();
+                open = batch;
+            }
+            result = batch.computeIfAbsent(code, key -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                // Lote cheio: quem chegar depois abre outro, e o dono deste não espera o resto da janela.
+                open = null;
+                batchFull.signalAll();
+            }
+            if (leader) {
+                awaitWindow(batch);
+                if (open == batch) {
+                    open = null;
+                }
+                toLoad = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (toLoad != null) {
+            load(toLoad);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Chamado com o lock; {@code awaitNanos} o libera enquanto espera, para que outros códigos entrem no lote.
+     */
+    private void awaitWindow(Map<String, CompletableFuture<Optional<CouponResponse>>> batch) {
+        long remaining = windowNanos;
+        try {
+            while (batch.size() < maxBatchSize && remaining > 0) {
+                remaining = batchFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // Os outros códigos do lote dependem desta thread: consulta agora e preserva a interrupção.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load(Map<String, CompletableFuture<Optional<CouponResponse>>> batch) {
+        try {
+            Map<String, CouponResponse> found = couponRepository.findValidByCodeIn(batch.keySet(), LocalDateTime.now())
+                    .stream()
+                    .collect(Collectors.toMap(CouponResponse::code, Function.identity()));
+            batch.forEach((code, future) -> future.complete(Optional.ofNullable(found.get(code))));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponCacheStats;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache em memória do resultado de validação por código sanitizado.
+ * Também guarda resultados negativos (código inexistente ou inválido), por isso precisa ser invalidado na criação.
+ */
+@Component
+public class CouponValidationCache {
+
+    private final AsyncCache<String, Optional<CouponResponse>> cache;
+
+    public CouponValidationCache(@Value("${coupon.validation-cache.max-size:100000}") long maxSize,
+                                 @Value("${coupon.validation-cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpirationAwareExpiry(ttl))
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Optional<CouponResponse> get(String code, Function<String, Optional<CouponResponse>> loader) {
+        return CacheLoading.get(cache, code, loader);
+    }
+
+    public void invalidate(String code) {
+        if (code != null) {
+            TransactionCallbacks.afterCommit(() -> cache.synchronous().invalidate(code));
+        }
+    }
+
+    public void invalidateById(UUID id) {
+        invalidateByIds(Set.of(id));
+    }
+
+    /**
+     * O cache é indexado por código, então a remoção por ID percorre as entradas uma vez para todo o conjunto.
+     */
+    public void invalidateByIds(Collection<UUID> ids) {
+        Set<UUID> targets = Set.copyOf(ids);
+        TransactionCallbacks.afterCommit(() -> cache.synchronous().asMap().values()
+                .removeIf(entry -> entry.map(coupon -> targets.contains(coupon.id())).orElse(false)));
+    }
+
+    public CouponCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new CouponCacheStats(
+                cache.synchronous().estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+
+    /**
+     * Expira cada entrada no menor entre o TTL configurado e a data de expiração do próprio cupom.
+     */
+    private record ExpirationAwareExpiry(Duration ttl) implements Expiry<String, Optional<CouponResponse>> {
+
+        @Override
+        public long expireAfterCreate(String code, Optional<CouponResponse> value, long currentTime) {
+            // Compara as durações antes de converter: datas a séculos de distância não cabem em nanossegundos.
+            Duration untilExpiration = value
+                    .map(coupon -> Duration.between(LocalDateTime.now(), coupon.expirationDate()))
+                    .filter(duration -> duration.compareTo(ttl) < 0)
+                    .orElse(ttl);
+            return untilExpiration.isNegative() ? 0 : untilExpiration.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String code, Optional<CouponResponse> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(code, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String code, Optional<CouponResponse> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
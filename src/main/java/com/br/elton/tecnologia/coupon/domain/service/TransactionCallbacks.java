@@ -0,0 +1,28 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Executa a ação somente depois do commit da transação corrente, ou imediatamente quando não há transação.
+     * Evita que um leitor concorrente recarregue o estado antigo do banco entre a invalidação e o commit.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+-- O H2 não suporta índices parciais: "deleted" entra como coluna do índice no lugar do WHERE deleted = false.
+
+-- findValidByCode e findExistingCodes
+CREATE INDEX idx_coupon_code_active ON coupon (code, deleted);
+
+-- findValidPage, findValidPageAfter e streamAllByDeletedFalse (keyset em expiration_date, id)
+CREATE INDEX idx_coupon_expiration_active ON coupon (deleted, expiration_date, id);
+
+-- listagem de cupons publicados dentro da validade
+CREATE INDEX idx_coupon_published_expiration_active ON coupon (deleted, published, expiration_date);
@@ -0,0 +1,12 @@
+-- Eventos de ciclo de vida gravados na mesma transação da escrita do cupom e publicados pelo relay em ordem de id.
+CREATE TABLE coupon_outbox (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_type  VARCHAR(16)  NOT NULL,
+    coupon_id   UUID         NOT NULL,
+    code        VARCHAR(6)   NOT NULL,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_coupon_outbox PRIMARY KEY (id)
+);
+
+-- Limpeza dos eventos mais antigos que a retenção.
+CREATE INDEX idx_coupon_outbox_occurred_at ON coupon_outbox (occurred_at);
@@ -0,0 +1,7 @@
+-- O H2 não suporta índices parciais: "deleted" e "published" entram como colunas do índice.
+
+-- GET /coupon e GET /coupon/page: cupons publicados dentro da validade em ordem de (expiration_date, id)
+DROP INDEX idx_coupon_published_expiration_active;
+CREATE INDEX idx_coupon_valid_expiration ON coupon (deleted, published, expiration_date, id);
+
+-- Busca por prefixo do código (active_code LIKE 'ABC%'): usa o índice da constraint uk_coupon_active_code.
@@ -0,0 +1,12 @@
+-- Respostas de criações feitas com Idempotency-Key, para reenvios que chegam a outra instância ou depois de um restart.
+-- O id é a operação e a chave (CREATE:<chave>); fingerprint é o SHA-256 do corpo da requisição original.
+CREATE TABLE coupon_idempotency (
+    id          VARCHAR(300) NOT NULL,
+    fingerprint VARCHAR(64)  NOT NULL,
+    response    VARCHAR      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_coupon_idempotency PRIMARY KEY (id)
+);
+
+-- Limpeza das respostas mais antigas que coupon.idempotency.ttl.
+CREATE INDEX idx_coupon_idempotency_created_at ON coupon_idempotency (created_at);
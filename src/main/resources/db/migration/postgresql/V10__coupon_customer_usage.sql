@@ -0,0 +1,11 @@
+-- Resgates por cliente de cada cupom com limite por cliente. O limite é aplicado por UPDATE condicional nesta linha,
+-- na mesma transação que grava o resgate, então vale entre instâncias e sobrevive a uma queda.
+CREATE TABLE coupon_customer_usage (
+    coupon_id   UUID        NOT NULL,
+    customer_id VARCHAR(64) NOT NULL,
+    uses        INTEGER     NOT NULL,
+    CONSTRAINT pk_coupon_customer_usage PRIMARY KEY (coupon_id, customer_id)
+);
+
+INSERT INTO coupon_customer_usage (coupon_id, customer_id, uses)
+SELECT coupon_id, customer_id, COUNT(*) FROM coupon_redemption GROUP BY coupon_id, customer_id;
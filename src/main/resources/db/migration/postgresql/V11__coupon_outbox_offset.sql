@@ -0,0 +1,10 @@
+-- Último evento da outbox entregue a cada consumidor durável; sobrevive a restarts e é o mesmo para todas as instâncias.
+-- O consumidor dos publicadores começa no fim da outbox, como o relay em memória fazia até aqui.
+CREATE TABLE coupon_outbox_offset (
+    consumer VARCHAR(64) NOT NULL,
+    position BIGINT      NOT NULL,
+    CONSTRAINT pk_coupon_outbox_offset PRIMARY KEY (consumer)
+);
+
+INSERT INTO coupon_outbox_offset (consumer, position)
+SELECT 'publishers', COALESCE(MAX(id), 0) FROM coupon_outbox;
@@ -0,0 +1,18 @@
+CREATE TABLE coupon (
+    id              UUID           NOT NULL,
+    code            VARCHAR(6)     NOT NULL,
+    active_code     VARCHAR(6),
+    description     VARCHAR(255)   NOT NULL,
+    discount_value  NUMERIC(10, 2) NOT NULL,
+    expiration_date TIMESTAMP(6)   NOT NULL,
+    published       BOOLEAN        NOT NULL,
+    deleted         BOOLEAN        NOT NULL,
+    CONSTRAINT pk_coupon PRIMARY KEY (id),
+    CONSTRAINT uk_coupon_active_code UNIQUE (active_code)
+);
+
+CREATE TABLE coupon_code_sequence (
+    id         INTEGER NOT NULL,
+    next_value BIGINT  NOT NULL,
+    CONSTRAINT pk_coupon_code_sequence PRIMARY KEY (id)
+);
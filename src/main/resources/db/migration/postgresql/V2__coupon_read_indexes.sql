@@ -0,0 +1,8 @@
+-- findValidByCode e findExistingCodes
+CREATE INDEX idx_coupon_code_active ON coupon (code) WHERE deleted = false;
+
+-- findValidPage, findValidPageAfter e streamAllByDeletedFalse (keyset em expiration_date, id)
+CREATE INDEX idx_coupon_expiration_active ON coupon (expiration_date, id) WHERE deleted = false;
+
+-- listagem de cupons publicados dentro da validade
+CREATE INDEX idx_coupon_published_expiration_active ON coupon (published, expiration_date) WHERE deleted = false;
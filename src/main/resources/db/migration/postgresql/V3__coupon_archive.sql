@@ -0,0 +1,20 @@
+ALTER TABLE coupon ADD COLUMN deleted_at TIMESTAMP(6);
+
+-- Cupons deletados antes desta coluna começam a contar a retenção a partir da migração.
+UPDATE coupon SET deleted_at = CURRENT_TIMESTAMP WHERE deleted = true;
+
+-- Varredura de cupons deletados além da retenção; os expirados usam idx_coupon_expiration_active.
+CREATE INDEX idx_coupon_deleted_at ON coupon (deleted_at) WHERE deleted = true;
+
+CREATE TABLE coupon_archive (
+    id              UUID           NOT NULL,
+    code            VARCHAR(6)     NOT NULL,
+    description     VARCHAR(255)   NOT NULL,
+    discount_value  NUMERIC(10, 2) NOT NULL,
+    expiration_date TIMESTAMP(6)   NOT NULL,
+    published       BOOLEAN        NOT NULL,
+    deleted         BOOLEAN        NOT NULL,
+    deleted_at      TIMESTAMP(6),
+    archived_at     TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_coupon_archive PRIMARY KEY (id)
+);
@@ -0,0 +1,22 @@
+-- Limites de uso opcionais (NULL = ilimitado). reserved_uses só cresce por UPDATE condicional até max_uses.
+ALTER TABLE coupon ADD COLUMN max_uses INTEGER;
+ALTER TABLE coupon ADD COLUMN max_uses_per_customer INTEGER;
+ALTER TABLE coupon ADD COLUMN reserved_uses INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE coupon ADD COLUMN redeemed_uses INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE coupon ADD CONSTRAINT ck_coupon_reserved_uses CHECK (max_uses IS NULL OR reserved_uses <= max_uses);
+
+ALTER TABLE coupon_archive ADD COLUMN max_uses INTEGER;
+ALTER TABLE coupon_archive ADD COLUMN max_uses_per_customer INTEGER;
+ALTER TABLE coupon_archive ADD COLUMN redeemed_uses INTEGER DEFAULT 0 NOT NULL;
+
+-- Sem chave estrangeira para coupon: o histórico de resgates sobrevive ao arquivamento do cupom.
+CREATE TABLE coupon_redemption (
+    id          UUID         NOT NULL,
+    coupon_id   UUID         NOT NULL,
+    customer_id VARCHAR(64)  NOT NULL,
+    redeemed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_coupon_redemption PRIMARY KEY (id)
+);
+
+-- Contagem de resgates por cliente ao carregar o limite por cliente.
+CREATE INDEX idx_coupon_redemption_customer ON coupon_redemption (coupon_id, customer_id);
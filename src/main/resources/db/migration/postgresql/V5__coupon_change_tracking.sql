@@ -0,0 +1,6 @@
+-- Datas de criação e da última alteração de cada cupom. Linhas existentes contam como alteradas agora.
+ALTER TABLE coupon ADD COLUMN created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE coupon ADD COLUMN updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE coupon_archive ADD COLUMN created_at TIMESTAMP(6);
+ALTER TABLE coupon_archive ADD COLUMN updated_at TIMESTAMP(6);
@@ -0,0 +1,7 @@
+-- GET /coupon e GET /coupon/page: cupons publicados dentro da validade em ordem de (expiration_date, id)
+DROP INDEX idx_coupon_published_expiration_active;
+CREATE INDEX idx_coupon_valid_expiration ON coupon (expiration_date, id) WHERE deleted = false AND published = true;
+
+-- Busca por prefixo do código (active_code LIKE 'ABC%'); varchar_pattern_ops permite o uso do índice com
+-- qualquer collation do banco.
+CREATE INDEX idx_coupon_active_code_prefix ON coupon (active_code varchar_pattern_ops);
@@ -0,0 +1,8 @@
+-- Lease das tarefas agendadas que devem rodar em uma instância por vez (arquivamento, publicação da outbox).
+-- Quem tem o lease é locked_by até locked_until; depois disso outra instância pode assumir.
+CREATE TABLE coupon_job_lock (
+    name         VARCHAR(64)  NOT NULL,
+    locked_by    VARCHAR(64)  NOT NULL,
+    locked_until TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_coupon_job_lock PRIMARY KEY (name)
+);
@@ -0,0 +1,219 @@
+package com.br.elton.tecnologia.coupon.api.controller;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponFilter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.service.CouponBulkService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponChangeService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponEventStream;
+import com.br.elton.tecnologia.coupon.domain.service.CouponIdempotencyService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponListCache;
+import com.br.elton.tecnologia.coupon.domain.service.CouponRedemptionService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponValidationCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /coupon com a lista em cache: GET condicional, variante gzip e o envio em streaming quando a lista não cabe
+ * no cache. O cache e o writer são os reais; só o {@link CouponService} é simulado.
+ */
+@ExtendWith(MockitoExtension.class)
+class CouponControllerListTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final List<CouponResponse> coupons = List.of(
+            new CouponResponse(UUID.randomUUID(), "ABC123", "Cupom 1", new BigDecimal("0.65"),
+                    LocalDateTime.of(2030, 1, 31, 23, 59, 59), true, null, null),
+            new CouponResponse(UUID.randomUUID(), "DEF456", "Cupom 2", new BigDecimal("12.50"),
+                    LocalDateTime.of(2030, 2, 28, 12, 0), true, 10, 1));
+
+    @Mock
+    private CouponService couponService;
+
+    @Mock
+    private CouponBulkService couponBulkService;
+
+    @Mock
+    private CouponChangeService couponChangeService;
+
+    @Mock
+    private CouponEventStream couponEventStream;
+
+    @Mock
+    private CouponIdempotencyService couponIdempotencyService;
+
+    @Mock
+    private CouponRedemptionService couponRedemptionService;
+
+    @Mock
+    private CouponValidationCache couponValidationCache;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = mockMvc(DataSize.ofMegabytes(1));
+        lenient().doAnswer(invocation -> {
+            Consumer<CouponResponse> consumer = invocation.getArgument(1);
+            coupons.forEach(consumer);
+            return null;
+        }).when(couponService).streamValidCoupon(any(), any());
+    }
+
+    private MockMvc mockMvc(DataSize listCacheSize) {
+        CouponController controller = new CouponController(couponService, couponBulkService, couponChangeService,
+                couponEventStream, couponIdempotencyService, couponRedemptionService, couponValidationCache,
+                new CouponListCache(listCacheSize, Duration.ofMinutes(1)), new CouponListWriter(objectMapper), objectMapper);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private MvcResult list(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn();
+    }
+
+    private List<CouponResponse> read(byte[] body) throws IOException {
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    @Test
+    void list_shouldAnswerCachedJson_withValidatorsAndVary() throws Exception {
+        MvcResult result = list(get("/coupon"));
+
+        assertEquals(coupons, read(result.getResponse().getContentAsByteArray()));
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Accept, Accept-Encoding", result.getResponse().getHeader(HttpHeaders.VARY));
+        assertEquals("no-cache", result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void list_shouldAnswerNotModified_whenIfNoneMatchHasCurrentEtag() throws Exception {
+        String etag = list(get("/coupon")).getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/coupon").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+        // A segunda requisição reaproveita a lista em cache.
+        verify(couponService, times(1)).streamValidCoupon(eq(CouponFilter.NONE), any());
+    }
+
+    @Test
+    void list_shouldAnswerNotModified_whenIfModifiedSinceIsLastModified() throws Exception {
+        String lastModified = list(get("/coupon")).getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/coupon").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void list_shouldAnswerGzip_withOwnEtag_whenAccepted() throws Exception {
+        MvcResult plain = list(get("/coupon"));
+        MvcResult gzip = list(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"));
+
+        String plainEtag = plain.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipEtag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(plainEtag.substring(0, plainEtag.length() - 1) + "-gzip\"", gzipEtag);
+        assertEquals("gzip", gzip.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Accept, Accept-Encoding", gzip.getResponse().getHeader(HttpHeaders.VARY));
+        byte[] body = gzip.getResponse().getContentAsByteArray();
+        assertEquals(body.length, gzip.getResponse().getContentLength());
+        assertEquals(coupons, read(gunzip(body)));
+
+        mockMvc.perform(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isNotModified());
+        // O ETag da variante sem compressão não vale para a variante gzip, e vice-versa.
+        mockMvc.perform(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, plainEtag))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/coupon").header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void list_shouldAnswerGzip_forWildcardOrPositiveQuality() throws Exception {
+        for (String acceptEncoding : List.of("*", "br;q=1.0, GZIP;q=0.5", "identity, *;q=0.1", "gzip;q=0.001")) {
+            MvcResult result = list(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+            assertEquals("gzip", result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+        }
+    }
+
+    @Test
+    void list_shouldNotAnswerGzip_whenRefusedOrNotListed() throws Exception {
+        for (String acceptEncoding : List.of("", "br, deflate", "gzip;q=0", "gzip; q=0.000", "*;q=0",
+                "*;q=1, gzip;q=0", "*, GZIP;Q=0", "gzip;q=0, *")) {
+            MvcResult result = list(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+            assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            assertEquals(coupons, read(result.getResponse().getContentAsByteArray()), acceptEncoding);
+        }
+    }
+
+    @Test
+    void list_shouldStreamWithoutValidators_whenListExceedsCacheSize() throws Exception {
+        mockMvc = mockMvc(DataSize.ofBytes(64));
+
+        MvcResult result = list(get("/coupon").header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        assertEquals(coupons, read(result.getResponse().getContentAsByteArray()));
+        assertNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Accept", result.getResponse().getHeader(HttpHeaders.VARY));
+        // Uma tentativa de montar o cache, que passa do tamanho, e a consulta do streaming.
+        verify(couponService, times(2)).streamValidCoupon(eq(CouponFilter.NONE), any());
+    }
+
+    @Test
+    void list_shouldStreamFromDatabase_whenFiltered() throws Exception {
+        MvcResult result = list(get("/coupon").param("codePrefix", "AB"));
+
+        assertNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(couponService).streamValidCoupon(eq(new CouponFilter("AB", null, null, null, null)), any());
+        verifyNoMoreInteractions(couponService);
+    }
+
+    @Test
+    void list_shouldUseCache_whenCodePrefixSanitizesToNothing() throws Exception {
+        MvcResult result = list(get("/coupon").param("codePrefix", " -.- "));
+
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(couponService).streamValidCoupon(eq(CouponFilter.NONE), any());
+        verifyNoMoreInteractions(couponService);
+    }
+}
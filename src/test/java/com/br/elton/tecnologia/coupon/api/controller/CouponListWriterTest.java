@@ -0,0 +1,57 @@
+package com.br.elton.tecnologia.coupon.api.controller;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponListWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CouponListWriter writer = new CouponListWriter(objectMapper);
+
+    private final List<CouponResponse> coupons = List.of(
+            new CouponResponse(UUID.randomUUID(), "ABC123", "Cupom 1", new BigDecimal("0.65"),
+                    LocalDateTime.of(2030, 1, 31, 23, 59, 59), true, null, null),
+            new CouponResponse(UUID.randomUUID(), "DEF456", "Cupom 2", new BigDecimal("12.50"),
+                    LocalDateTime.of(2030, 2, 28, 12, 0), false, 10, 1));
+
+    @Test
+    void write_shouldWriteOneObjectPerLine_whenNdjson() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writer.write(CouponListWriter.Format.NDJSON, coupons::forEach, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        assertEquals(coupons.get(0), objectMapper.readValue(lines[0], CouponResponse.class));
+        assertEquals(coupons.get(1), objectMapper.readValue(lines[1], CouponResponse.class));
+    }
+
+    @Test
+    void write_shouldRoundTripAndBeSmallerThanJson_whenCbor() throws Exception {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+
+        writer.write(CouponListWriter.Format.JSON, coupons::forEach, json);
+        writer.write(CouponListWriter.Format.CBOR, coupons::forEach, cbor);
+
+        List<CouponResponse> read = objectMapper.copyWith(new CBORFactory())
+                .readValue(cbor.toByteArray(), new TypeReference<>() {});
+        assertEquals(coupons, read);
+        assertEquals(coupons, objectMapper.readValue(json.toByteArray(), new TypeReference<List<CouponResponse>>() {}));
+        assertTrue(cbor.size() < json.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.br.elton.tecnologia.coupon.api.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponAdmissionFilterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void budgetOf_shouldSeparateReadWriteAndValidate() {
+        assertEquals(CouponRateLimiter.Budget.READ, CouponAdmissionFilter.budgetOf("GET", "/coupon"));
+        assertEquals(CouponRateLimiter.Budget.READ, CouponAdmissionFilter.budgetOf("GET", "/coupon/validate/stats"));
+        assertEquals(CouponRateLimiter.Budget.VALIDATE, CouponAdmissionFilter.budgetOf("GET", "/coupon/validate/ABC123"));
+        assertEquals(CouponRateLimiter.Budget.VALIDATE, CouponAdmissionFilter.budgetOf("POST", "/coupon/ABC123/redeem"));
+        assertEquals(CouponRateLimiter.Budget.WRITE, CouponAdmissionFilter.budgetOf("POST", "/coupon"));
+        assertEquals(CouponRateLimiter.Budget.WRITE, CouponAdmissionFilter.budgetOf("DELETE", "/coupon/" + "0".repeat(32)));
+    }
+
+    @Test
+    void doFilter_shouldReturn429WithRetryAfter_whenClientExceedsBudget() throws Exception {
+        CouponAdmissionFilter filter = filter(rateLimiter(1), Set.of(), 0);
+
+        MockHttpServletResponse first = call(filter, validate("10.0.0.1"));
+        MockHttpServletResponse second = call(filter, validate("10.0.0.1"));
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader("Retry-After"));
+        JsonNode body = objectMapper.readTree(second.getContentAsByteArray());
+        assertEquals(429, body.get("status").asInt());
+        assertEquals("/coupon/validate/ABC123", body.get("path").asText());
+        assertEquals(1.0, meterRegistry.get("coupon.admission.rejected")
+                .tag("reason", "rate-limit").tag("budget", "VALIDATE").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldKeepSeparateBudgets_perClientAndOperation() throws Exception {
+        CouponAdmissionFilter filter = filter(rateLimiter(1), Set.of(), 0);
+
+        assertEquals(200, call(filter, validate("10.0.0.1")).getStatus());
+        assertEquals(200, call(filter, validate("10.0.0.2")).getStatus());
+        assertEquals(200, call(filter, new MockHttpServletRequest("GET", "/coupon")).getStatus());
+    }
+
+    @Test
+    void doFilter_shouldLimitByApiKey_onlyWhenKeyIsKnown() throws Exception {
+        CouponAdmissionFilter filter = filter(rateLimiter(1), Set.of("loja-a", "loja-b"), 0);
+
+        MockHttpServletRequest storeA = validate("10.0.0.1");
+        storeA.addHeader(CouponAdmissionFilter.API_KEY_HEADER, "loja-a");
+        MockHttpServletRequest storeB = validate("10.0.0.1");
+        storeB.addHeader(CouponAdmissionFilter.API_KEY_HEADER, "loja-b");
+        MockHttpServletRequest unknownKey = validate("10.0.0.1");
+        unknownKey.addHeader(CouponAdmissionFilter.API_KEY_HEADER, "inventada");
+        MockHttpServletRequest sameIp = validate("10.0.0.1");
+
+        assertEquals(200, call(filter, storeA).getStatus());
+        assertEquals(200, call(filter, storeB).getStatus());
+        assertEquals(200, call(filter, unknownKey).getStatus());
+        assertEquals(429, call(filter, sameIp).getStatus());
+    }
+
+    @Test
+    void doFilter_shouldShedWith503_whenConcurrencyLimitReached() throws Exception {
+        CouponAdmissionFilter filter = filter(rateLimiter(100), Set.of(), 1);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain reentrant = (request, response) -> nested[0] = call(filter, new MockHttpServletRequest("GET", "/coupon"));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/coupon/page"), new MockHttpServletResponse(), reentrant);
+
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader("Retry-After"));
+        assertEquals(200, call(filter, new MockHttpServletRequest("GET", "/coupon")).getStatus());
+        assertEquals(0, meterRegistry.get("coupon.admission.in-flight").gauge().value());
+    }
+
+    @Test
+    void doFilter_shouldIgnoreOtherPaths() throws Exception {
+        CouponAdmissionFilter filter = filter(rateLimiter(1), Set.of(), 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call(filter, new MockHttpServletRequest("GET", "/actuator/health")).getStatus());
+        }
+    }
+
+    private CouponRateLimiter rateLimiter(int burst) {
+        return new CouponRateLimiter(1, burst, 1, burst, 1, burst, 1000, Duration.ofMinutes(10));
+    }
+
+    private CouponAdmissionFilter filter(CouponRateLimiter rateLimiter, Set<String> apiKeys, int maxConcurrent) {
+        return new CouponAdmissionFilter(rateLimiter, objectMapper, meterRegistry, true, apiKeys, maxConcurrent, Duration.ofSeconds(1));
+    }
+
+    private static MockHttpServletRequest validate(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/coupon/validate/ABC123");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletResponse call(CouponAdmissionFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
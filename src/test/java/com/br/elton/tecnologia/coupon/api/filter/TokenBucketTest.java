@@ -0,0 +1,70 @@
+package com.br.elton.tecnologia.coupon.api.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenReject_whenBucketIsEmpty() {
+        long now = 42;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+
+        assertEquals(SECOND / 10, bucket.tryAcquire(now));
+    }
+
+    @Test
+    void tryAcquire_shouldRefillAtRate() {
+        long now = -SECOND;
+        TokenBucket bucket = new TokenBucket(10, 2, now);
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+
+        assertTrue(bucket.tryAcquire(now + SECOND / 20) > 0);
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 10));
+        assertTrue(bucket.tryAcquire(now + SECOND / 10) > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldNotExceedCapacity_whenIdleForLong() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+        long later = now + 60 * SECOND;
+
+        int allowed = 0;
+        while (bucket.tryAcquire(later) == 0) {
+            allowed++;
+        }
+
+        assertEquals(3, allowed);
+    }
+
+    @Test
+    void tryAcquire_shouldGrantExactlyCapacity_whenConcurrent() throws Exception {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(0.001, 100, now);
+        AtomicInteger allowed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 1000).forEach(i -> executor.execute(() -> {
+                if (bucket.tryAcquire(now) == 0) {
+                    allowed.incrementAndGet();
+                }
+            }));
+        }
+
+        assertEquals(100, allowed.get());
+    }
+}
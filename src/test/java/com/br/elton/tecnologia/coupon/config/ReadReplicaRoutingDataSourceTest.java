@@ -0,0 +1,118 @@
+package com.br.elton.tecnologia.coupon.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica1.getConnection()).thenReturn(replicaConnection);
+        lenient().when(replica2.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    private ReadReplicaRoutingDataSource routing(Duration readYourWritesWindow) {
+        return new ReadReplicaRoutingDataSource(primary, List.of(replica1, replica2), readYourWritesWindow, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getConnection_shouldRotateReplicas_forReadOnlyTransactions() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(Duration.ZERO);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routing.getConnection());
+        assertSame(replicaConnection, routing.getConnection());
+
+        verify(replica1).getConnection();
+        verify(replica2).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_shouldUsePrimary_forReadWriteTransactions() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(Duration.ZERO);
+
+        assertSame(primaryConnection, routing.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void getConnection_shouldSkipFailedReplica_andFallBackToPrimary() throws SQLException {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, List.of(replica1),
+                Duration.ZERO, Duration.ofMinutes(1));
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertSame(primaryConnection, routing.getConnection());
+
+        // A réplica fica fora do rodízio depois da falha, sem esperar o timeout de conexão a cada leitura.
+        verify(replica1, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldReadFromPrimary_rightAfterCommittedWrite() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(Duration.ofMinutes(1));
+
+        routing.getConnection();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void getConnection_shouldKeepReplicaReads_whenWriteRolledBack() throws SQLException {
+        ReadReplicaRoutingDataSource routing = routing(Duration.ofMinutes(1));
+
+        routing.getConnection();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routing.getConnection());
+    }
+}
@@ -0,0 +1,67 @@
+package com.br.elton.tecnologia.coupon.config;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Primário e réplica são dois bancos H2 independentes, sem replicação entre eles: um cupom gravado só na
+ * réplica prova que a leitura foi roteada para ela.
+ */
+@SpringBootTest(properties = {
+        "coupon.datasource.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "coupon.datasource.read-your-writes-window=PT0S",
+        "coupon.archive.enabled=false"
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:coupondb-replica;DB_CLOSE_DELAY=-1";
+
+    private static final DataSource REPLICA = new DriverManagerDataSource(REPLICA_URL, "sa", "1234");
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA).locations("classpath:db/migration/h2").load().migrate();
+    }
+
+    @Test
+    void validate_shouldReadFromReplica() {
+        new JdbcTemplate(REPLICA).update(
+                "INSERT INTO coupon (id, code, active_code, description, discount_value, expiration_date, published, deleted)" +
+                " VALUES (RANDOM_UUID(), 'RPL001', 'RPL001', 'réplica', 1, ?, true, false)",
+                LocalDateTime.now().plusDays(1));
+
+        CouponResponse coupon = couponService.validate("RPL001");
+
+        assertEquals("réplica", coupon.description());
+    }
+
+    @Test
+    void create_shouldWriteToPrimary() {
+        couponService.create(new CouponCreated("PRM001", "primário", BigDecimal.ONE, LocalDateTime.now().plusDays(1), true));
+
+        String sql = "SELECT count(*) FROM coupon WHERE code = 'PRM001'";
+        assertEquals(1, new JdbcTemplate(primaryDataSource).queryForObject(sql, Integer.class));
+        assertEquals(0, new JdbcTemplate(REPLICA).queryForObject(sql, Integer.class));
+    }
+}
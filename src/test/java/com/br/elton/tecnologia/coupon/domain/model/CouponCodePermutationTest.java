@@ -0,0 +1,41 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponCodePermutationTest {
+
+    private final CouponCodePermutation permutation = new CouponCodePermutation(42L);
+
+    @Test
+    void codeAt_shouldNeverRepeat_forDistinctIndexes() {
+        Set<String> codes = new HashSet<>();
+        for (long index = 0; index < 200_000; index++) {
+            assertTrue(codes.add(permutation.codeAt(index)), "código repetido no índice " + index);
+        }
+    }
+
+    @Test
+    void codeAt_shouldProduceSanitizedSixCharCodes() {
+        for (long index : new long[]{0, 1, 35, 1_000_000, CouponCodePermutation.CODE_SPACE - 1}) {
+            String code = permutation.codeAt(index);
+            assertEquals(6, code.length());
+            assertEquals(code, Coupon.sanitizeCode(code));
+        }
+    }
+
+    @Test
+    void codeAt_shouldBeDeterministic_forSameKey() {
+        assertEquals(permutation.codeAt(123_456), new CouponCodePermutation(42L).codeAt(123_456));
+        assertNotEquals(permutation.codeAt(123_456), new CouponCodePermutation(43L).codeAt(123_456));
+    }
+
+    @Test
+    void codeAt_shouldRejectIndexOutsideSpace() {
+        assertThrows(IllegalArgumentException.class, () -> permutation.codeAt(CouponCodePermutation.CODE_SPACE));
+    }
+}
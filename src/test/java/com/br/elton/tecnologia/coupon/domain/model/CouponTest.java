@@ -0,0 +1,54 @@
+package com.br.elton.tecnologia.coupon.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponTest {
+
+    private static final String ALPHABET = "abcXYZ019-_. \t#çÉıİ１ßﬀ";
+
+    /**
+     * Implementação anterior, com regex, usada como referência de comportamento.
+     */
+    private static String regexSanitize(String code) {
+        return code.replaceAll("[^a-zA-Z0-9]", "").toUpperCase(Locale.ROOT);
+    }
+
+    @Test
+    void sanitizeCode_shouldMatchRegexImplementation() {
+        for (String code : List.of("", "ABC123", "abc-123", " a.b.c 1-2-3 ", "ção-12ABx", "ｆｕｌｌ１２", "ıiİI99", "----")) {
+            assertEquals(regexSanitize(code), Coupon.sanitizeCode(code), code);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder code = new StringBuilder();
+            for (int length = random.nextInt(12); length > 0; length--) {
+                code.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertEquals(regexSanitize(code.toString()), Coupon.sanitizeCode(code.toString()), code.toString());
+        }
+    }
+
+    @Test
+    void sanitizeCode_shouldReturnSameInstance_whenAlreadyNormalized() {
+        String code = new String("AB12CD");
+        assertSame(code, Coupon.sanitizeCode(code));
+        assertNull(Coupon.sanitizeCode(null));
+    }
+
+    @Test
+    void hasValidCodeLength_shouldCountOnlySanitizedCharacters() {
+        assertTrue(Coupon.hasValidCodeLength("abc-123"));
+        assertTrue(Coupon.hasValidCodeLength(" A.B.C 1-2-3 "));
+        assertFalse(Coupon.hasValidCodeLength("abc-12"));
+        assertFalse(Coupon.hasValidCodeLength("abc-1234"));
+        assertFalse(Coupon.hasValidCodeLength("ção-12"));
+        assertFalse(Coupon.hasValidCodeLength(null));
+    }
+}
@@ -0,0 +1,148 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chama cada consulta do {@link CouponRepository}, captura o SQL que o Hibernate gerou, com os parâmetros, e confere
+ * via EXPLAIN que ele usa o índice esperado. Cada banco informa o nome exato do índice; quando o planner do banco não
+ * escolhe o índice da consulta com a tabela vazia, o teste é interrompido explicitamente em vez de aceitar outro índice.
+ */
+@Import(CapturedStatements.class)
+abstract class AbstractCouponIndexUsageTest {
+
+    private static final UUID ANY_ID = new UUID(0, 0);
+    private static final List<String> CODES = List.of("ABC123", "DEF456");
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CapturedStatements capturedStatements;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Ajustes de sessão antes do EXPLAIN, por exemplo para impedir que o planner prefira seq scan numa tabela vazia.
+     */
+    protected void prepareSession(Statement statement) throws SQLException {
+    }
+
+    protected abstract String primaryKeyIndex();
+
+    protected String validExpirationIndex() {
+        return "idx_coupon_valid_expiration";
+    }
+
+    protected String codePrefixIndex() {
+        return "idx_coupon_active_code_prefix";
+    }
+
+    protected String deletedAtIndex() {
+        return "idx_coupon_deleted_at";
+    }
+
+    @Test
+    void findValidByCode_shouldUseCodeIndex() {
+        assertUsesIndex(() -> couponRepository.findValidByCode("ABC123", LocalDateTime.now()), "idx_coupon_code_active");
+    }
+
+    @Test
+    void findValidByCodeIn_shouldUseCodeIndex() {
+        assertUsesIndex(() -> couponRepository.findValidByCodeIn(CODES, LocalDateTime.now()), "idx_coupon_code_active");
+    }
+
+    @Test
+    void findExistingCodes_shouldUseCodeIndex() {
+        assertUsesIndex(() -> couponRepository.findExistingCodes(CODES), "idx_coupon_code_active");
+    }
+
+    @Test
+    void findValidPage_shouldUseValidExpirationIndex() {
+        assertUsesIndex(() -> couponRepository.findValidPage(LocalDateTime.now(), Limit.of(51)), validExpirationIndex());
+    }
+
+    @Test
+    void findValidPageAfter_shouldUseValidExpirationIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        assertUsesIndex(() -> couponRepository.findValidPageAfter(now, ANY_ID, now, Limit.of(51)), validExpirationIndex());
+    }
+
+    @Test
+    void streamByCodePrefix_shouldUseIndex() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        assertUsesIndex(() -> transaction.executeWithoutResult(status -> couponRepository.streamBy(
+                CouponSpecifications.valid(LocalDateTime.now()).and(CouponSpecifications.codeStartsWith("AB"))).toList()),
+                codePrefixIndex());
+    }
+
+    @Test
+    void findExpiredIds_shouldUseKeysetIndex() {
+        assertUsesIndex(() -> couponRepository.findExpiredIds(LocalDateTime.now(), Limit.of(500)), "idx_coupon_expiration_active");
+    }
+
+    @Test
+    void findDeletedIds_shouldUseDeletedAtIndex() {
+        assertUsesIndex(() -> couponRepository.findDeletedIds(LocalDateTime.now(), Limit.of(500)), deletedAtIndex());
+    }
+
+    @Test
+    void findSnapshotAfter_shouldUsePrimaryKey() {
+        assertUsesIndex(() -> couponRepository.findSnapshotAfter(ANY_ID, Limit.of(101)), primaryKeyIndex());
+    }
+
+    @Test
+    void softDeleteById_shouldUsePrimaryKey() {
+        assertUsesIndex(() -> couponRepository.softDeleteById(ANY_ID, LocalDateTime.now()), primaryKeyIndex());
+    }
+
+    protected void assertUsesIndex(Runnable call, String index) {
+        List<CapturedStatements.Captured> statements = capturedStatements.capture(call);
+        assertEquals(1, statements.size(), () -> "Esperava uma instrução, o Hibernate executou: " + statements);
+        String plan = explain(statements.get(0));
+        assertTrue(Pattern.compile("\\b" + Pattern.quote(index.toLowerCase(Locale.ROOT)) + "\\b").matcher(plan).find(),
+                () -> "Plano não usa " + index + ":\n" + plan);
+    }
+
+    private String explain(CapturedStatements.Captured captured) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                prepareSession(statement);
+            }
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+                captured.bind(statement);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString().toLowerCase(Locale.ROOT);
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envolve o {@code dataSource} do contexto de teste e guarda o SQL e os parâmetros de cada
+ * {@link PreparedStatement} executado na thread de {@link #capture}: assim o EXPLAIN roda exatamente o que o
+ * Hibernate gerou para o método do repositório. Instruções de outras threads, como as tarefas agendadas, ficam de fora.
+ */
+class CapturedStatements implements BeanPostProcessor {
+
+    private final ThreadLocal<List<Captured>> capturing = new ThreadLocal<>();
+
+    List<Captured> capture(Runnable call) {
+        List<Captured> statements = new ArrayList<>();
+        capturing.set(statements);
+        try {
+            call.run();
+        } finally {
+            capturing.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return proxy(DataSource.class, dataSource, (method, args, result) ->
+                    result instanceof Connection connection ? connection(connection) : result);
+        }
+        return bean;
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args, result) ->
+                method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                        ? preparedStatement(statement, (String) args[0])
+                        : result);
+    }
+
+    private PreparedStatement preparedStatement(PreparedStatement target, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, target, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindings.add(new Binding(method, args.clone()));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (name.startsWith("execute") && capturing.get() != null) {
+                capturing.get().add(new Captured(sql, List.copyOf(bindings)));
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("equals") && args.length == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && (args == null || args.length == 0)) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return afterCall.apply(method, args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(CapturedStatements.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result);
+    }
+
+    /**
+     * Um {@code set*} do JDBC, para ser repetido no EXPLAIN.
+     */
+    record Binding(Method method, Object[] args) {
+    }
+
+    record Captured(String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.method().invoke(statement, binding.args());
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new SQLException("Falha ao repetir " + binding.method().getName() + " no EXPLAIN", e);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedeem;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.service.CouponRedemptionService;
+import com.br.elton.tecnologia.coupon.domain.service.CouponService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Duas instâncias simuladas por dois {@link CouponRedemptionService} no mesmo banco: o limite por cliente vale
+ * entre elas porque é contado na transação que grava o resgate.
+ */
+@SpringBootTest
+class CouponCustomerUsageRepositoryTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponRedemptionRepository couponRedemptionRepository;
+
+    @Autowired
+    private CouponCustomerUsageRepository couponCustomerUsageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<CouponRedemptionService> instances = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        couponCustomerUsageRepository.deleteAllInBatch();
+        couponRedemptionRepository.deleteAllInBatch();
+        couponRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(CouponRedemptionService::shutdown);
+    }
+
+    @Test
+    void redeem_shouldNotExceedLimitPerCustomer_acrossInstances() throws Exception {
+        Coupon coupon = couponRepository.saveAndFlush(Coupon.builder().code("LIM001").description("Cupom LIM001")
+                .discountValue(new BigDecimal("5.00")).expirationDate(LocalDateTime.now().plusDays(1)).published(true)
+                .maxUsesPerCustomer(3).build());
+        CouponRedemptionService first = instance();
+        CouponRedemptionService second = instance();
+
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CouponRedemptionService service = i % 2 == 0 ? first : second;
+            attempts.add(() -> {
+                try {
+                    service.redeem("LIM001", new CouponRedeem("ana"));
+                    return true;
+                } catch (BussinesException e) {
+                    return false;
+                }
+            });
+        }
+        int redeemed = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Boolean> attempt : executor.invokeAll(attempts)) {
+                redeemed += attempt.get() ? 1 : 0;
+            }
+        }
+
+        assertEquals(3, redeemed);
+        assertEquals(3, couponRedemptionRepository.count());
+        assertEquals(3, couponCustomerUsageRepository.findAll().get(0).getUses());
+
+        first.flush();
+        second.flush();
+        assertEquals(3, couponRepository.findById(coupon.getId()).orElseThrow().getRedeemedUses());
+    }
+
+    private CouponRedemptionService instance() {
+        CouponRedemptionService service = new CouponRedemptionService(couponService, couponRepository,
+                couponRedemptionRepository, couponCustomerUsageRepository, transactionManager, 50, Duration.ofSeconds(1),
+                Duration.ofMinutes(10));
+        instances.add(service);
+        return service;
+    }
+}
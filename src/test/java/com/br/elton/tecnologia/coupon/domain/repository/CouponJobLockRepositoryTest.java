@@ -0,0 +1,59 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.domain.service.CouponJobLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Duas instâncias simuladas por dois {@link CouponJobLockService}, cada um com seu próprio id, no mesmo banco.
+ */
+@SpringBootTest
+class CouponJobLockRepositoryTest {
+
+    private static final String JOB = "test-job";
+
+    @Autowired
+    private CouponJobLockRepository couponJobLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CouponJobLockService first;
+    private CouponJobLockService second;
+
+    @BeforeEach
+    void setUp() {
+        couponJobLockRepository.deleteAllInBatch();
+        first = new CouponJobLockService(couponJobLockRepository, transactionManager);
+        second = new CouponJobLockService(couponJobLockRepository, transactionManager);
+    }
+
+    @Test
+    void tryAcquire_shouldGiveTheLeaseToOneInstanceAtATime() {
+        assertTrue(first.tryAcquire(JOB, Duration.ofMinutes(1)));
+        assertFalse(second.tryAcquire(JOB, Duration.ofMinutes(1)));
+        assertTrue(first.tryAcquire(JOB, Duration.ofMinutes(1)), "quem tem o lease consegue renovar");
+
+        first.release(JOB);
+
+        assertTrue(second.tryAcquire(JOB, Duration.ofMinutes(1)));
+        assertFalse(first.tryAcquire(JOB, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void tryAcquire_shouldTakeOverExpiredLease() throws InterruptedException {
+        assertTrue(first.tryAcquire(JOB, Duration.ofMillis(1)));
+        Thread.sleep(10);
+
+        assertTrue(second.tryAcquire(JOB, Duration.ofMinutes(1)));
+        assertFalse(first.tryAcquire(JOB, Duration.ofMinutes(1)), "o lease vencido não volta para quem o perdeu");
+    }
+}
@@ -0,0 +1,33 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assumptions.abort;
+
+@SpringBootTest
+class CouponRepositoryIndexTest extends AbstractCouponIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    protected String primaryKeyIndex() {
+        // O H2 dá ao índice da chave primária um nome próprio, como PRIMARY_KEY_7.
+        return jdbcTemplate.queryForObject(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = 'PK_COUPON'", String.class);
+    }
+
+    @Override
+    protected String codePrefixIndex() {
+        return abort("Com a tabela vazia o H2 prefere idx_coupon_expiration_active ao índice de uk_coupon_active_code; "
+                + "o uso de índice na busca por prefixo só é verificado no Postgres");
+    }
+
+    @Override
+    protected String deletedAtIndex() {
+        return abort("Com a tabela vazia o H2 prefere a igualdade em deleted de idx_coupon_expiration_active ao range em "
+                + "idx_coupon_deleted_at; o uso de índice na limpeza dos deletados só é verificado no Postgres");
+    }
+}
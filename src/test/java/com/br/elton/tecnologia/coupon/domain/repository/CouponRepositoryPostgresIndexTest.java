@@ -0,0 +1,31 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Roda apenas quando {@code COUPON_TEST_POSTGRES_URL} aponta para um Postgres (ou compatível) acessível,
+ * por exemplo {@code jdbc:postgresql://localhost:5432/coupon_test}.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@TestPropertySource(properties = "spring.datasource.url=${COUPON_TEST_POSTGRES_URL}")
+@EnabledIfEnvironmentVariable(named = "COUPON_TEST_POSTGRES_URL", matches = "jdbc:postgresql:.+")
+class CouponRepositoryPostgresIndexTest extends AbstractCouponIndexUsageTest {
+
+    @Override
+    protected void prepareSession(Statement statement) throws SQLException {
+        // Com a tabela vazia o planner sempre escolhe seq scan; aqui interessa saber se um índice atende a consulta.
+        statement.execute("SET enable_seqscan = off");
+    }
+
+    @Override
+    protected String primaryKeyIndex() {
+        return "pk_coupon";
+    }
+}
@@ -0,0 +1,97 @@
+package com.br.elton.tecnologia.coupon.domain.repository;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class CouponSearchRepositoryTest {
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        couponRepository.deleteAllInBatch();
+        save("ABC111", "1.00", now.plusDays(3), true);
+        couponRepository.saveAndFlush(Coupon.builder().code("ABC222").description("Cupom ABC222")
+                .discountValue(new BigDecimal("5.00")).expirationDate(now.plusDays(1)).published(true)
+                .maxUses(10).maxUsesPerCustomer(2).build());
+        save("ABD333", "10.00", now.plusDays(2), true);
+        save("ABC444", "5.00", now.plusDays(4), false);
+        Coupon deleted = save("ABC555", "5.00", now.plusDays(5), true);
+        deleted.softDelete();
+        couponRepository.saveAndFlush(deleted);
+        // Expirado: alterado direto na coluna, já que a entidade não aceita expiração no passado.
+        save("ABC666", "5.00", now.plusDays(6), true);
+        jdbcTemplate.update("UPDATE coupon SET expiration_date = ? WHERE code = 'ABC666'", now.minusMinutes(1));
+    }
+
+    @Test
+    void streamBy_shouldReturnOnlyPublishedNotDeletedAndNotExpired_inExpirationOrder() {
+        assertEquals(List.of("ABC222", "ABD333", "ABC111"), codes(CouponSpecifications.valid(now)));
+    }
+
+    @Test
+    void streamBy_shouldApplyCodePrefixSanitizedAndDiscountAndExpirationFilters() {
+        assertEquals(List.of("ABC222", "ABC111"),
+                codes(CouponSpecifications.valid(now).and(CouponSpecifications.codeStartsWith("a-bc"))));
+        assertEquals(List.of("ABC222", "ABD333"),
+                codes(CouponSpecifications.valid(now).and(CouponSpecifications.discountBetween(new BigDecimal("2"), null))));
+        assertEquals(List.of("ABC222"),
+                codes(CouponSpecifications.valid(now)
+                        .and(CouponSpecifications.discountBetween(null, new BigDecimal("5.00")))
+                        .and(CouponSpecifications.expiresBetween(now, now.plusDays(2)))));
+        assertEquals(List.of("ABC222", "ABD333", "ABC111"),
+                codes(CouponSpecifications.valid(now).and(CouponSpecifications.codeStartsWith("--"))));
+    }
+
+    @Test
+    void findValidPage_shouldProjectEveryFieldOfTheResponse() {
+        Coupon coupon = couponRepository.findAll().stream()
+                .filter(c -> c.getCode().equals("ABC222")).findFirst().orElseThrow();
+
+        List<CouponResponse> page = couponRepository.findValidPage(now, Limit.of(1));
+
+        assertEquals(List.of(CouponMapper.toResponse(coupon)), page);
+    }
+
+    private List<String> codes(Specification<Coupon> specification) {
+        try (Stream<CouponResponse> coupons = couponRepository.streamBy(specification)) {
+            return coupons.map(CouponResponse::code).toList();
+        }
+    }
+
+    private Coupon save(String code, String discount, LocalDateTime expiration, boolean published) {
+        return couponRepository.saveAndFlush(Coupon.builder()
+                .code(code)
+                .description("Cupom " + code)
+                .discountValue(new BigDecimal(discount))
+                .expirationDate(expiration)
+                .published(published)
+                .build());
+    }
+}
@@ -0,0 +1,78 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponArchiveRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponJobLockRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arquivamento contra o banco real: o evento {@code ARCHIVED} tem de sair na mesma transação que a cópia,
+ * qualquer que seja a precisão com que {@code archived_at} é gravado.
+ */
+@SpringBootTest
+class CouponArchiveSweeperOutboxTest {
+
+    @Autowired
+    private CouponArchiveSweeper couponArchiveSweeper;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Autowired
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Autowired
+    private CouponJobLockRepository couponJobLockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        couponJobLockRepository.deleteAllInBatch();
+        couponOutboxRepository.deleteAllInBatch();
+        couponArchiveRepository.deleteAllInBatch();
+        couponRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sweep_shouldRecordArchivedEventForEachArchivedCoupon() {
+        Coupon coupon = couponRepository.saveAndFlush(Coupon.builder()
+                .code("ARC001")
+                .description("Cupom ARC001")
+                .discountValue(new BigDecimal("5.00"))
+                .expirationDate(LocalDateTime.now().plusDays(1))
+                .published(true)
+                .build());
+        // Expirado: alterado direto na coluna, já que a entidade não aceita expiração no passado.
+        jdbcTemplate.update("UPDATE coupon SET expiration_date = ? WHERE id = ?", LocalDateTime.now().minusDays(2), coupon.getId());
+
+        couponArchiveSweeper.sweep();
+
+        assertFalse(couponRepository.existsById(coupon.getId()));
+        assertTrue(couponArchiveRepository.existsById(coupon.getId()));
+        List<CouponOutboxEvent> events = couponOutboxRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(CouponOutboxEvent.Type.ARCHIVED, events.get(0).getType());
+        assertEquals(coupon.getId(), events.get(0).getCouponId());
+        assertEquals("ARC001", events.get(0).getCode());
+    }
+}
@@ -0,0 +1,120 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.repository.CouponArchiveRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponArchiveSweeperTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Mock
+    private CouponJobLockService couponJobLockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponArchiveSweeper sweeper(int maxBatchesPerRun) {
+        return new CouponArchiveSweeper(couponRepository, couponArchiveRepository, couponOutboxRepository,
+                new CouponListCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1)), couponJobLockService, transactionManager,
+                2, maxBatchesPerRun, Duration.ZERO, Duration.ofDays(1), Duration.ofDays(30), Duration.ofMinutes(5));
+    }
+
+    private void holdLease() {
+        when(couponJobLockService.tryAcquire(eq(CouponArchiveSweeper.JOB), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void sweep_shouldArchiveInBatchesUntilShortBatch() {
+        List<UUID> full = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> partial = List.of(UUID.randomUUID());
+        List<UUID> deleted = List.of(UUID.randomUUID());
+
+        holdLease();
+        when(couponRepository.findExpiredIds(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(full).thenReturn(partial);
+        when(couponRepository.findDeletedIds(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(deleted);
+        when(couponRepository.deleteAllByIdIn(anyCollection())).thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+
+        sweeper(10).sweep();
+
+        verify(couponArchiveRepository).copyFromCoupons(eq(full), any(LocalDateTime.class));
+        verify(couponArchiveRepository).copyFromCoupons(eq(partial), any(LocalDateTime.class));
+        verify(couponArchiveRepository).copyFromCoupons(eq(deleted), any(LocalDateTime.class));
+        verify(couponOutboxRepository).recordArchived(full);
+        verify(couponOutboxRepository).recordArchived(deleted);
+        verify(couponRepository, times(3)).deleteAllByIdIn(anyCollection());
+        verify(couponJobLockService).release(CouponArchiveSweeper.JOB);
+    }
+
+    @Test
+    void sweep_shouldStopAtMaxBatchesPerRun() {
+        holdLease();
+        when(couponRepository.findExpiredIds(any(LocalDateTime.class), any(Limit.class)))
+                .thenAnswer(invocation -> List.of(UUID.randomUUID(), UUID.randomUUID()));
+        when(couponRepository.deleteAllByIdIn(anyCollection())).thenReturn(2);
+
+        sweeper(3).sweep();
+
+        verify(couponRepository, times(3)).deleteAllByIdIn(anyCollection());
+        verify(couponRepository, never()).findDeletedIds(any(), any());
+    }
+
+    @Test
+    void sweep_shouldNotWrite_whenNothingIsEligible() {
+        holdLease();
+        when(couponRepository.findExpiredIds(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+        when(couponRepository.findDeletedIds(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+
+        sweeper(10).sweep();
+
+        verifyNoInteractions(couponArchiveRepository);
+        verify(couponRepository, never()).deleteAllByIdIn(anyCollection());
+    }
+
+    @Test
+    void sweep_shouldSkip_whenAnotherInstanceHoldsTheLease() {
+        when(couponJobLockService.tryAcquire(eq(CouponArchiveSweeper.JOB), any(Duration.class))).thenReturn(false);
+
+        sweeper(10).sweep();
+
+        verifyNoInteractions(couponRepository, couponArchiveRepository);
+        verify(couponJobLockService, never()).release(any());
+    }
+
+    @Test
+    void sweep_shouldStop_whenLeaseIsLostBetweenBatches() {
+        when(couponJobLockService.tryAcquire(eq(CouponArchiveSweeper.JOB), any(Duration.class)))
+                .thenReturn(true, true, false);
+        when(couponRepository.findExpiredIds(any(LocalDateTime.class), any(Limit.class)))
+                .thenAnswer(invocation -> List.of(UUID.randomUUID(), UUID.randomUUID()));
+        when(couponRepository.deleteAllByIdIn(anyCollection())).thenReturn(2);
+
+        sweeper(10).sweep();
+
+        verify(couponRepository, times(1)).deleteAllByIdIn(anyCollection());
+        verify(couponRepository, never()).findDeletedIds(any(), any());
+    }
+}
@@ -0,0 +1,203 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkItemResult;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkReport;
+import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponBulkServiceTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponBulkService couponBulkService;
+
+    @BeforeEach
+    void setUp() {
+        CouponValidationCache cache = new CouponValidationCache(100, Duration.ofMinutes(5));
+        couponBulkService = new CouponBulkService(couponRepository, entityManager, cache,
+                new CouponListCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1)), couponOutboxRepository, transactionManager, 2);
+
+        lenient().when(couponRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Coupon> coupons = invocation.getArgument(0);
+            coupons.forEach(coupon -> coupon.setId(UUID.randomUUID()));
+            return coupons;
+        });
+    }
+
+    @Test
+    void createAll_shouldReportEachItem_withOneDuplicateQueryPerChunk() {
+        Set<String> stored = new HashSet<>(Set.of("TAKEN1"));
+        when(couponRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Coupon> coupons = invocation.getArgument(0);
+            coupons.forEach(coupon -> {
+                coupon.setId(UUID.randomUUID());
+                stored.add(coupon.getCode());
+            });
+            return coupons;
+        });
+        when(couponRepository.findExistingCodes(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> codes = invocation.getArgument(0);
+            return codes.stream().filter(stored::contains).collect(Collectors.toSet());
+        });
+
+        CouponBulkReport report = couponBulkService.createAll(List.of(
+                created("aaa-111", 1.0),
+                created("TAKEN1", 1.0),
+                created("BBB222", 0.1),
+                created("CCC333", 1.0),
+                created("DDD444", 1.0),
+                created("ddd444", 1.0),
+                created("ccc.333", 1.0)
+        ).iterator());
+
+        assertEquals(7, report.total());
+        assertEquals(3, report.created());
+        assertEquals(4, report.failed());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), report.items().stream().map(CouponBulkItemResult::index).toList());
+
+        assertEquals(CouponBulkItemResult.Status.CREATED, report.items().get(0).status());
+        assertEquals("AAA111", report.items().get(0).code());
+        assertNotNull(report.items().get(0).id());
+        assertEquals("Já existe um cupom com este código", report.items().get(1).message());
+        assertEquals("Desconto mínimo é 0.5", report.items().get(2).message());
+        assertEquals(CouponBulkItemResult.Status.CREATED, report.items().get(3).status());
+        assertEquals(CouponBulkItemResult.Status.CREATED, report.items().get(4).status());
+        assertEquals("Código duplicado no lote", report.items().get(5).message());
+        assertEquals("Já existe um cupom com este código", report.items().get(6).message());
+
+        verify(couponRepository, times(4)).findExistingCodes(anyCollection());
+    }
+
+    @Test
+    void createAll_shouldInsertItemsOneByOne_whenAnotherRequestTakesACodeBeforeTheFlush() {
+        // Vazio na consulta do bloco; o RACED1 foi gravado por outra requisição antes do insert.
+        Set<String> stored = new HashSet<>();
+        when(couponRepository.findExistingCodes(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> codes = invocation.getArgument(0);
+            return codes.stream().filter(stored::contains).collect(Collectors.toSet());
+        });
+        when(couponRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Coupon> coupons = invocation.getArgument(0);
+            if (coupons.size() > 1) {
+                coupons.forEach(coupon -> coupon.setId(UUID.randomUUID()));
+                stored.add("RACED1");
+                throw activeCodeViolation();
+            }
+            assertNull(coupons.get(0).getId(), "o id da tentativa desfeita não pode ser reaproveitado");
+            coupons.get(0).setId(UUID.randomUUID());
+            return coupons;
+        });
+
+        CouponBulkReport report = couponBulkService.createAll(List.of(created("AAA111", 1.0), created("RACED1", 1.0)).iterator());
+
+        assertEquals(1, report.created());
+        assertEquals(CouponBulkItemResult.Status.CREATED, report.items().get(0).status());
+        assertEquals("Já existe um cupom com este código", report.items().get(1).message());
+        verify(couponOutboxRepository, times(1)).recordCreated(anyCollection());
+    }
+
+    @Test
+    void createAll_shouldReportCodeAsTaken_whenTheSingleInsertAlsoLosesTheRace() {
+        when(couponRepository.findExistingCodes(anyCollection())).thenReturn(Set.of());
+        when(couponRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Coupon> coupons = invocation.getArgument(0);
+            if (coupons.size() > 1 || coupons.get(0).getCode().equals("RACED1")) {
+                throw activeCodeViolation();
+            }
+            coupons.get(0).setId(UUID.randomUUID());
+            return coupons;
+        });
+
+        CouponBulkReport report = couponBulkService.createAll(List.of(created("AAA111", 1.0), created("RACED1", 1.0)).iterator());
+
+        assertEquals(CouponBulkItemResult.Status.CREATED, report.items().get(0).status());
+        assertEquals("Já existe um cupom com este código", report.items().get(1).message());
+    }
+
+    @Test
+    void createAll_shouldFailWholeChunk_whenFlushFailsForAnotherReason() {
+        when(couponRepository.findExistingCodes(anyCollection())).thenReturn(Set.of());
+        when(couponRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("discount_value nulo"));
+
+        CouponBulkReport report = couponBulkService.createAll(List.of(created("AAA111", 1.0), created("BBB222", 1.0)).iterator());
+
+        assertEquals(0, report.created());
+        assertTrue(report.items().stream().allMatch(item -> item.message().equals("Falha ao gravar o lote")));
+        verify(couponRepository, times(1)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void createAll_shouldStopAndReport_whenSourceItemIsMalformed() {
+        Iterator<CouponCreated> items = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public CouponCreated next() {
+                if (read++ == 0) {
+                    return created("AAA111", 1.0);
+                }
+                throw new IllegalArgumentException("malformed");
+            }
+        };
+        when(couponRepository.findExistingCodes(anyCollection())).thenReturn(Set.of());
+
+        CouponBulkReport report = couponBulkService.createAll(items);
+
+        assertEquals(2, report.total());
+        assertEquals(1, report.created());
+        assertEquals("Item com formato inválido", report.items().get(1).message());
+    }
+
+    private static DataIntegrityViolationException activeCodeViolation() {
+        return new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("duplicado", new SQLException("duplicado"), "UK_COUPON_ACTIVE_CODE_INDEX_7"));
+    }
+
+    private static CouponCreated created(String code, double discount) {
+        return new CouponCreated(code, "desc", BigDecimal.valueOf(discount), LocalDateTime.now().plusDays(1), true);
+    }
+}
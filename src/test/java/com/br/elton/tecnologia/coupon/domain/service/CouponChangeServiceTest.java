@@ -0,0 +1,191 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponChange;
+import com.br.elton.tecnologia.coupon.api.dto.CouponChanges;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponChangeCursor;
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponChangeServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Mock
+    private CouponOutboxRelay couponOutboxRelay;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponChangeService couponChangeService;
+
+    @BeforeEach
+    void setUp() {
+        couponChangeService = new CouponChangeService(couponRepository, couponOutboxRepository, couponOutboxRelay,
+                new CouponMetrics(new SimpleMeterRegistry()), transactionManager);
+    }
+
+    @Test
+    void listChanges_shouldStartWithSnapshot_fromCurrentOutboxPosition() {
+        Coupon first = coupon("AAA111", false);
+        Coupon second = coupon("BBB222", false);
+        when(couponOutboxRelay.position()).thenReturn(10L);
+        when(couponRepository.findSnapshotAfter(new UUID(0, 0), Limit.of(3)))
+                .thenReturn(List.of(first, second, coupon("CCC333", false)));
+
+        CouponChanges page = couponChangeService.listChanges(null, 2);
+
+        assertTrue(page.hasMore());
+        assertEquals(List.of("AAA111", "BBB222"), page.changes().stream().map(CouponChange::code).toList());
+        assertEquals(CouponChange.Type.UPSERTED, page.changes().get(0).type());
+        assertEquals(new CouponChangeCursor(10, second.getId()), CouponChangeCursor.decode(page.nextCursor()));
+        verifyNoInteractions(couponOutboxRepository);
+    }
+
+    @Test
+    void listChanges_shouldContinueFromOutbox_afterLastSnapshotPage() {
+        Coupon last = coupon("AAA111", false);
+        CouponChangeCursor since = new CouponChangeCursor(10, UUID.randomUUID());
+        when(couponRepository.findSnapshotAfter(since.snapshotAfter(), Limit.of(101))).thenReturn(List.of(last));
+        when(couponOutboxRelay.position()).thenReturn(12L);
+
+        CouponChanges page = couponChangeService.listChanges(since.encode(), null);
+
+        assertTrue(page.hasMore(), "houve eventos na outbox durante a foto");
+        assertEquals(new CouponChangeCursor(10, null), CouponChangeCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void listChanges_shouldReturnCurrentStateOfEachEvent_upToRelayPosition() {
+        Coupon created = coupon("AAA111", false);
+        Coupon deleted = coupon("BBB222", true);
+        UUID archivedId = UUID.randomUUID();
+        when(couponOutboxRelay.position()).thenReturn(13L);
+        when(couponOutboxRepository.findBetween(10, 13, Limit.of(100))).thenReturn(List.of(
+                event(11, CouponOutboxEvent.Type.CREATED, created.getId(), "AAA111"),
+                event(12, CouponOutboxEvent.Type.DELETED, deleted.getId(), "BBB222"),
+                event(13, CouponOutboxEvent.Type.ARCHIVED, archivedId, "CCC333")));
+        when(couponRepository.findAllById(anyIterable())).thenReturn(List.of(created, deleted));
+
+        CouponChanges page = couponChangeService.listChanges(new CouponChangeCursor(10, null).encode(), null);
+
+        assertFalse(page.hasMore());
+        assertEquals(List.of(CouponChange.Type.UPSERTED, CouponChange.Type.DELETED, CouponChange.Type.DELETED),
+                page.changes().stream().map(CouponChange::type).toList());
+        assertEquals("AAA111", page.changes().get(0).coupon().code());
+        assertNull(page.changes().get(1).coupon());
+        assertEquals(archivedId, page.changes().get(2).id());
+        assertEquals("CCC333", page.changes().get(2).code());
+        assertEquals(new CouponChangeCursor(13, null), CouponChangeCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void listChanges_shouldReportCouponOnce_atItsLastEvent() {
+        Coupon first = coupon("AAA111", true);
+        Coupon second = coupon("BBB222", false);
+        when(couponOutboxRelay.position()).thenReturn(13L);
+        when(couponOutboxRepository.findBetween(10, 13, Limit.of(3))).thenReturn(List.of(
+                event(11, CouponOutboxEvent.Type.CREATED, first.getId(), "AAA111"),
+                event(12, CouponOutboxEvent.Type.CREATED, second.getId(), "BBB222"),
+                event(13, CouponOutboxEvent.Type.DELETED, first.getId(), "AAA111")));
+        when(couponRepository.findAllById(anyIterable())).thenReturn(List.of(first, second));
+
+        CouponChanges page = couponChangeService.listChanges(new CouponChangeCursor(10, null).encode(), 3);
+
+        assertEquals(List.of("BBB222", "AAA111"), page.changes().stream().map(CouponChange::code).toList());
+        assertEquals(CouponChange.Type.DELETED, page.changes().get(1).type());
+        assertFalse(page.hasMore(), "a página leu até a posição do relay");
+        assertEquals(new CouponChangeCursor(13, null), CouponChangeCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void listChanges_shouldRereadOnPrimary_whenReplicaMissesAnId() {
+        Coupon first = coupon("AAA111", false);
+        Coupon second = coupon("BBB222", false);
+        CouponOutboxEvent eleven = event(11, CouponOutboxEvent.Type.CREATED, first.getId(), "AAA111");
+        CouponOutboxEvent twelve = event(12, CouponOutboxEvent.Type.CREATED, second.getId(), "BBB222");
+        CouponOutboxEvent thirteen = event(13, CouponOutboxEvent.Type.DELETED, first.getId(), "AAA111");
+        when(couponOutboxRelay.position()).thenReturn(13L);
+        when(couponOutboxRepository.findBetween(10, 13, Limit.of(100)))
+                .thenReturn(List.of(eleven, thirteen))
+                .thenReturn(List.of(eleven, twelve, thirteen));
+        when(couponRepository.findAllById(anyIterable())).thenReturn(List.of(first, second));
+
+        CouponChanges page = couponChangeService.listChanges(new CouponChangeCursor(10, null).encode(), null);
+
+        assertEquals(List.of("BBB222", "AAA111"), page.changes().stream().map(CouponChange::code).toList());
+        verify(couponOutboxRepository, times(2)).findBetween(10, 13, Limit.of(100));
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void listChanges_shouldKeepCursor_whenNothingChanged() {
+        CouponChangeCursor since = new CouponChangeCursor(10, null);
+        when(couponOutboxRelay.position()).thenReturn(10L);
+        when(couponOutboxRepository.findBetween(10, 10, Limit.of(100))).thenReturn(List.of());
+
+        CouponChanges page = couponChangeService.listChanges(since.encode(), null);
+
+        assertTrue(page.changes().isEmpty());
+        assertFalse(page.hasMore());
+        assertEquals(since, CouponChangeCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void listChanges_shouldRejectCursor_olderThanOutboxRetention() {
+        when(couponOutboxRepository.findFirstId()).thenReturn(50L);
+
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> couponChangeService.listChanges(new CouponChangeCursor(10, null).encode(), null));
+        assertEquals("Cursor anterior às alterações guardadas; sincronize de novo sem o parâmetro since", exception.getMessage());
+    }
+
+    @Test
+    void listChanges_shouldRejectInvalidCursor() {
+        BussinesException exception = assertThrows(BussinesException.class, () -> couponChangeService.listChanges("???", null));
+        assertEquals("Cursor de paginação inválido", exception.getMessage());
+    }
+
+    private static Coupon coupon(String code, boolean deleted) {
+        return Coupon.builder()
+                .id(UUID.randomUUID())
+                .code(code)
+                .description("desc")
+                .discountValue(BigDecimal.ONE)
+                .expirationDate(T0.plusDays(1))
+                .published(true)
+                .deleted(deleted)
+                .updatedAt(T0)
+                .build();
+    }
+
+    private static CouponOutboxEvent event(long id, CouponOutboxEvent.Type type, UUID couponId, String code) {
+        return new CouponOutboxEvent(id, type, couponId, code, T0.plusSeconds(id));
+    }
+}
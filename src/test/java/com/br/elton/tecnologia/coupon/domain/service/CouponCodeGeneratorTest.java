@@ -0,0 +1,25 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponCodeGeneratorTest {
+
+    @Test
+    void parseKey_shouldRefuseToStart_withoutKey() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> CouponCodeGenerator.parseKey(" "));
+        assertTrue(exception.getMessage().contains("COUPON_GENERATOR_KEY"));
+        assertThrows(IllegalStateException.class, () -> CouponCodeGenerator.parseKey(null));
+    }
+
+    @Test
+    void parseKey_shouldRejectNonNumericKey() {
+        assertThrows(IllegalStateException.class, () -> CouponCodeGenerator.parseKey("segredo"));
+    }
+
+    @Test
+    void parseKey_shouldAcceptAnySignedLong() {
+        assertEquals(-8_123_456_789_012_345_678L, CouponCodeGenerator.parseKey(" -8123456789012345678 "));
+    }
+}
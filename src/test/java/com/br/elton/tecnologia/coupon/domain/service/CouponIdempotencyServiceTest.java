@@ -0,0 +1,186 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.model.CouponIdempotencyRecord;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponIdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIdempotencyServiceTest {
+
+    @Mock
+    private CouponIdempotencyRepository couponIdempotencyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final CouponResponse coupon = new CouponResponse(UUID.randomUUID(), "ABC123", "Cupom", new BigDecimal("1.50"),
+            LocalDateTime.of(2030, 1, 31, 23, 59, 59), true, null, null);
+
+    private CouponIdempotencyService service(boolean persistent) {
+        return new CouponIdempotencyService(couponIdempotencyRepository, transactionManager, objectMapper,
+                Duration.ofHours(24), 1000, persistent);
+    }
+
+    @Test
+    void execute_shouldReplayStoredResponse_withoutRunningActionAgain() {
+        CouponIdempotencyService service = service(false);
+        AtomicInteger executions = new AtomicInteger();
+
+        CouponIdempotencyService.Result<CouponResponse> first = service.execute(CouponIdempotencyService.Operation.CREATE,
+                "chave-1", CouponResponse.class, () -> {
+                    executions.incrementAndGet();
+                    return coupon;
+                }, () -> "hash");
+        CouponIdempotencyService.Result<CouponResponse> replay = service.execute(CouponIdempotencyService.Operation.CREATE,
+                "chave-1", CouponResponse.class, () -> fail("não deveria executar de novo"), () -> "hash");
+
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(replay.replayed());
+        assertSame(coupon, replay.response());
+        verifyNoInteractions(couponIdempotencyRepository);
+    }
+
+    @Test
+    void execute_shouldRejectSameKey_whenBodyDiffers() {
+        CouponIdempotencyService service = service(false);
+        service.execute(CouponIdempotencyService.Operation.CREATE, "chave-1", CouponResponse.class, () -> coupon, () -> "hash-a");
+
+        BussinesException exception = assertThrows(BussinesException.class, () -> service.execute(
+                CouponIdempotencyService.Operation.CREATE, "chave-1", CouponResponse.class, () -> coupon, () -> "hash-b"));
+
+        assertEquals("Idempotency-Key já usada em uma requisição diferente", exception.getMessage());
+    }
+
+    @Test
+    void execute_shouldKeepOperationsApart_whenKeyIsTheSame() {
+        CouponIdempotencyService service = service(false);
+        AtomicInteger executions = new AtomicInteger();
+
+        service.execute(CouponIdempotencyService.Operation.CREATE, "chave-1", Object.class, executions::incrementAndGet, () -> "hash");
+        service.execute(CouponIdempotencyService.Operation.BULK_CREATE, "chave-1", Object.class, executions::incrementAndGet, () -> "hash");
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_shouldRunAgain_whenPreviousExecutionFailed() {
+        CouponIdempotencyService service = service(false);
+
+        assertThrows(BussinesException.class, () -> service.execute(CouponIdempotencyService.Operation.CREATE,
+                "chave-1", CouponResponse.class, () -> {
+                    throw new BussinesException("Já existe um cupom com este código");
+                }, () -> "hash"));
+        CouponIdempotencyService.Result<CouponResponse> retry = service.execute(CouponIdempotencyService.Operation.CREATE,
+                "chave-1", CouponResponse.class, () -> coupon, () -> "hash");
+
+        assertFalse(retry.replayed());
+        assertSame(coupon, retry.response());
+    }
+
+    @Test
+    void execute_shouldRunOnce_whenDuplicatesArriveConcurrently() throws Exception {
+        CouponIdempotencyService service = service(false);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<CouponIdempotencyService.Result<CouponResponse>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> service.execute(CouponIdempotencyService.Operation.CREATE, "chave-1",
+                    CouponResponse.class, () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return coupon;
+                    }, () -> "hash")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> service.execute(CouponIdempotencyService.Operation.CREATE, "chave-1",
+                        CouponResponse.class, () -> {
+                            executions.incrementAndGet();
+                            return coupon;
+                        }, () -> "hash")));
+            }
+            release.countDown();
+
+            for (Future<CouponIdempotencyService.Result<CouponResponse>> result : results) {
+                assertSame(coupon, result.get(5, TimeUnit.SECONDS).response());
+            }
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_shouldRejectInvalidKey() {
+        CouponIdempotencyService service = service(false);
+
+        assertThrows(BussinesException.class, () -> service.execute(CouponIdempotencyService.Operation.CREATE,
+                "  ", CouponResponse.class, () -> coupon, () -> "hash"));
+        assertThrows(BussinesException.class, () -> service.execute(CouponIdempotencyService.Operation.CREATE,
+                "x".repeat(CouponIdempotencyService.MAX_KEY_LENGTH + 1), CouponResponse.class, () -> coupon, () -> "hash"));
+    }
+
+    @Test
+    void execute_shouldPersistResponse_whenPersistent() throws Exception {
+        CouponIdempotencyService service = service(true);
+        when(couponIdempotencyRepository.findByIdAndCreatedAtAfter(eq("CREATE:chave-1"), any())).thenReturn(Optional.empty());
+
+        service.execute(CouponIdempotencyService.Operation.CREATE, "chave-1", CouponResponse.class, () -> coupon, () -> "hash");
+
+        verify(couponIdempotencyRepository).insert(eq("CREATE:chave-1"), eq("hash"),
+                eq(objectMapper.writeValueAsString(coupon)), any());
+    }
+
+    @Test
+    void execute_shouldReplayPersistedResponse_whenMissingInMemory() throws Exception {
+        CouponIdempotencyService service = service(true);
+        when(couponIdempotencyRepository.findByIdAndCreatedAtAfter(eq("CREATE:chave-1"), any())).thenReturn(Optional.of(
+                new CouponIdempotencyRecord("CREATE:chave-1", "hash", objectMapper.writeValueAsString(coupon), LocalDateTime.now())));
+
+        CouponIdempotencyService.Result<CouponResponse> replay = service.execute(CouponIdempotencyService.Operation.CREATE,
+                "chave-1", CouponResponse.class, () -> fail("não deveria executar de novo"), () -> "hash");
+
+        assertTrue(replay.replayed());
+        assertEquals(coupon, replay.response());
+        verify(couponIdempotencyRepository, never()).insert(any(), any(), any(), any());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponListCacheTest {
+
+    private final AtomicInteger writes = new AtomicInteger();
+    private final AtomicReference<String> content = new AtomicReference<>("[]");
+    private final AtomicReference<Instant> validUntil = new AtomicReference<>();
+
+    private final CouponListCache.ListWriter writer = outputStream -> {
+        writes.incrementAndGet();
+        outputStream.write(content.get().getBytes(StandardCharsets.UTF_8));
+        return validUntil.get();
+    };
+
+    @Test
+    void get_shouldReuseSnapshot_untilInvalidated() throws Exception {
+        CouponListCache cache = new CouponListCache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+
+        CouponListCache.Snapshot first = cache.get(writer).orElseThrow();
+        CouponListCache.Snapshot second = cache.get(writer).orElseThrow();
+        assertSame(first, second);
+        assertEquals(1, writes.get());
+
+        content.set("[{\"code\":\"ABC123\"}]");
+        cache.invalidate();
+        CouponListCache.Snapshot changed = cache.get(writer).orElseThrow();
+
+        assertEquals(2, writes.get());
+        assertNotEquals(first.etag(), changed.etag());
+        assertEquals("[{\"code\":\"ABC123\"}]", new String(changed.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_shouldRebuild_whenContentIsNoLongerValid() throws Exception {
+        CouponListCache cache = new CouponListCache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+
+        validUntil.set(Instant.now().plusSeconds(60));
+        cache.get(writer);
+        cache.get(writer);
+        assertEquals(1, writes.get());
+
+        validUntil.set(Instant.now().minusMillis(1));
+        cache.invalidate();
+        cache.get(writer);
+        cache.get(writer);
+        assertEquals(3, writes.get());
+    }
+
+    @Test
+    void get_shouldKeepGzipVersionOfBody() throws Exception {
+        CouponListCache cache = new CouponListCache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+        content.set("[{\"code\":\"ABC123\"},{\"code\":\"ABC124\"}]");
+
+        CouponListCache.Snapshot snapshot = cache.get(writer).orElseThrow();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzipBody()))) {
+            assertArrayEquals(snapshot.body(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void get_shouldKeepEtagAndLastModified_whenRebuiltContentIsEqual() throws Exception {
+        CouponListCache cache = new CouponListCache(DataSize.ofKilobytes(1), Duration.ZERO);
+
+        CouponListCache.Snapshot first = cache.get(writer).orElseThrow();
+        CouponListCache.Snapshot rebuilt = cache.get(writer).orElseThrow();
+
+        assertEquals(2, writes.get());
+        assertEquals(first.etag(), rebuilt.etag());
+        assertEquals(first.lastModified(), rebuilt.lastModified());
+    }
+
+    @Test
+    void get_shouldNotCache_whenListExceedsMaxSize() throws Exception {
+        CouponListCache cache = new CouponListCache(DataSize.ofBytes(10), Duration.ofMinutes(1));
+        content.set("[{\"code\":\"ABC123\"}]");
+
+        assertTrue(cache.get(writer).isEmpty());
+        assertTrue(cache.get(writer).isEmpty());
+        assertEquals(1, writes.get());
+    }
+}
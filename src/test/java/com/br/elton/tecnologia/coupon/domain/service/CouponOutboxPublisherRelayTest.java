@@ -0,0 +1,165 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxOffsetRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponOutboxPublisherRelayTest {
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Mock
+    private CouponOutboxOffsetRepository couponOutboxOffsetRepository;
+
+    @Mock
+    private CouponJobLockService couponJobLockService;
+
+    @Mock
+    private ObjectProvider<CouponEventPublisher> publishers;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponOutboxPublisherRelay relay;
+
+    private final List<CouponOutboxEvent> committed = new ArrayList<>();
+
+    private final List<Long> published = new ArrayList<>();
+
+    /**
+     * Simula a linha de {@code coupon_outbox_offset}.
+     */
+    private final AtomicLong storedPosition = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        relay = new CouponOutboxPublisherRelay(couponOutboxRepository, couponOutboxOffsetRepository, couponJobLockService,
+                publishers, transactionManager, 3, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        lenient().when(couponOutboxRepository.findBetween(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return committed.stream()
+                    .filter(event -> event.getId() > after)
+                    .sorted((left, right) -> Long.compare(left.getId(), right.getId()))
+                    .limit(3)
+                    .toList();
+        });
+        lenient().when(couponOutboxOffsetRepository.findPosition(CouponOutboxPublisherRelay.CONSUMER))
+                .thenAnswer(invocation -> Optional.of(storedPosition.get()));
+        lenient().when(couponOutboxOffsetRepository.advance(eq(CouponOutboxPublisherRelay.CONSUMER), anyLong(), anyLong()))
+                .thenAnswer(invocation -> storedPosition.compareAndSet(invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+        CouponEventPublisher publisher = events -> events.forEach(event -> published.add(event.getId()));
+        lenient().when(publishers.stream()).thenAnswer(invocation -> Stream.of(publisher));
+        lenient().when(publishers.orderedStream()).thenAnswer(invocation -> Stream.of(publisher));
+    }
+
+    private void commit(long... ids) {
+        for (long id : ids) {
+            committed.add(new CouponOutboxEvent(id, CouponOutboxEvent.Type.CREATED, UUID.randomUUID(), "ABC123", LocalDateTime.now()));
+        }
+    }
+
+    private void holdLease() {
+        when(couponJobLockService.tryAcquire(CouponOutboxPublisherRelay.JOB, Duration.ofSeconds(30))).thenReturn(true);
+    }
+
+    @Test
+    void relay_shouldResumeFromStoredPosition_andStoreEachBatch() {
+        holdLease();
+        storedPosition.set(2);
+        commit(LongStream.rangeClosed(1, 7).toArray());
+
+        relay.relay();
+
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), published);
+        assertEquals(7, storedPosition.get());
+        verify(couponOutboxOffsetRepository).advance(CouponOutboxPublisherRelay.CONSUMER, 2, 5);
+        verify(couponOutboxOffsetRepository).advance(CouponOutboxPublisherRelay.CONSUMER, 5, 7);
+    }
+
+    @Test
+    void relay_shouldDoNothing_whenAnotherInstanceHoldsTheLease() {
+        commit(1, 2);
+
+        relay.relay();
+
+        assertTrue(published.isEmpty());
+        verifyNoInteractions(couponOutboxRepository, couponOutboxOffsetRepository);
+    }
+
+    @Test
+    void relay_shouldNotTakeTheLease_whenThereAreNoPublishers() {
+        when(publishers.stream()).thenAnswer(invocation -> Stream.empty());
+        commit(1, 2);
+
+        relay.relay();
+
+        verifyNoInteractions(couponJobLockService, couponOutboxRepository, couponOutboxOffsetRepository);
+    }
+
+    @Test
+    void relay_shouldKeepPosition_whenPublisherFails() {
+        holdLease();
+        CouponEventPublisher failing = mock(CouponEventPublisher.class);
+        doThrow(new IllegalStateException("broker fora do ar")).doNothing().when(failing).publish(anyList());
+        when(publishers.orderedStream()).thenAnswer(invocation -> Stream.of(failing));
+        commit(1, 2);
+
+        relay.relay();
+        assertEquals(0, storedPosition.get());
+
+        relay.relay();
+        assertEquals(2, storedPosition.get());
+        verify(failing, times(2)).publish(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void relay_shouldStop_whenAnotherInstanceAdvancedThePosition() {
+        holdLease();
+        commit(LongStream.rangeClosed(1, 6).toArray());
+        CouponEventPublisher publisher = events -> {
+            published.addAll(events.stream().map(CouponOutboxEvent::getId).toList());
+            // Outra instância assumiu o lease vencido e entregou o mesmo lote durante esta publicação.
+            storedPosition.set(3);
+        };
+        when(publishers.orderedStream()).thenAnswer(invocation -> Stream.of(publisher));
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L), published);
+        assertEquals(3, storedPosition.get());
+    }
+
+    @Test
+    void relay_shouldStop_whenLeaseIsLostBetweenBatches() {
+        when(couponJobLockService.tryAcquire(CouponOutboxPublisherRelay.JOB, Duration.ofSeconds(30))).thenReturn(true, false);
+        commit(LongStream.rangeClosed(1, 6).toArray());
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L), published);
+        assertEquals(3, storedPosition.get());
+    }
+}
@@ -0,0 +1,161 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.domain.model.CouponOutboxEvent;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponOutboxRelayTest {
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    @Mock
+    private ObjectProvider<CouponEventListener> listeners;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Simula a tabela: ids gravados, em qualquer ordem de commit.
+     */
+    private final List<CouponOutboxEvent> committed = new ArrayList<>();
+
+    private final List<Long> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(couponOutboxRepository.findLastId()).thenReturn(0L);
+        lenient().when(couponOutboxRepository.findBetween(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            long until = invocation.getArgument(1);
+            return committed.stream()
+                    .filter(event -> event.getId() > after && event.getId() <= until)
+                    .sorted((left, right) -> Long.compare(left.getId(), right.getId()))
+                    .limit(invocation.<Limit>getArgument(2).max())
+                    .toList();
+        });
+        CouponEventListener listener = events -> events.forEach(event -> published.add(event.getId()));
+        lenient().when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+    }
+
+    private CouponOutboxRelay relay(Duration gapTimeout) {
+        return new CouponOutboxRelay(couponOutboxRepository, listeners, transactionManager, 3, gapTimeout, Duration.ofDays(7), 10);
+    }
+
+    private void commit(long... ids) {
+        for (long id : ids) {
+            committed.add(new CouponOutboxEvent(id, CouponOutboxEvent.Type.CREATED, UUID.randomUUID(), "ABC123", LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void relay_shouldPublishInBatchesUntilCaughtUp() {
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        commit(LongStream.rangeClosed(1, 7).toArray());
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), published);
+        assertEquals(7, relay.position());
+    }
+
+    @Test
+    void relay_shouldWaitForUncommittedId_beforePublishingLaterOnes() {
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        commit(1, 3);
+
+        relay.relay();
+        assertEquals(List.of(1L), published);
+
+        commit(2);
+        relay.relay();
+        assertEquals(List.of(1L, 2L, 3L), published);
+    }
+
+    @Test
+    void relay_shouldSkipGap_afterGapTimeout() {
+        CouponOutboxRelay relay = relay(Duration.ZERO);
+        commit(1, 3);
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 3L), published);
+        assertEquals(3, relay.position());
+    }
+
+    @Test
+    void relay_shouldRetryBatch_whenListenerFails() {
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        CouponEventListener failing = mock(CouponEventListener.class);
+        doThrow(new IllegalStateException("cliente fora do ar")).doNothing().when(failing).onEvents(anyList());
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(failing));
+        commit(1, 2);
+
+        relay.relay();
+        assertEquals(0, relay.position());
+
+        relay.relay();
+        assertEquals(2, relay.position());
+        verify(failing, times(2)).onEvents(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void relay_shouldStartFromLastExistingEvent() {
+        when(couponOutboxRepository.findLastId()).thenReturn(2L);
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        commit(1, 2, 3);
+
+        relay.relay();
+
+        assertEquals(List.of(3L), published);
+    }
+
+    @Test
+    void position_shouldNotPassUncommittedId_whenInstanceStarts() {
+        // O evento 2 ainda não fez commit quando a instância sobe; o 3 já fez.
+        when(couponOutboxRepository.findLastId()).thenReturn(3L);
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        commit(1, 3);
+
+        assertEquals(1, relay.position());
+        relay.relay();
+        assertEquals(List.of(), published);
+
+        commit(2);
+        relay.relay();
+        assertEquals(List.of(2L, 3L), published);
+        assertEquals(3, relay.position());
+    }
+
+    @Test
+    void position_shouldOnlyScanLastIds_whenInstanceStarts() {
+        when(couponOutboxRepository.findLastId()).thenReturn(25L);
+        CouponOutboxRelay relay = relay(Duration.ofMinutes(1));
+        // O buraco no 5 fica antes dos 10 ids conferidos na subida.
+        commit(LongStream.rangeClosed(1, 4).toArray());
+        commit(LongStream.rangeClosed(6, 25).toArray());
+
+        assertEquals(25, relay.position());
+        verify(couponOutboxRepository).findBetween(15, 25, Limit.of(10));
+    }
+}
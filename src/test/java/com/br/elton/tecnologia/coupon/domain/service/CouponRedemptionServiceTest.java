@@ -0,0 +1,275 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedeem;
+import com.br.elton.tecnologia.coupon.api.dto.CouponRedemptionResponse;
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponCustomerUsageRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRedemptionRepository;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponRedemptionServiceTest {
+
+    private static final UUID COUPON_ID = UUID.randomUUID();
+
+    @Mock
+    private CouponService couponService;
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponRedemptionRepository couponRedemptionRepository;
+
+    @Mock
+    private CouponCustomerUsageRepository couponCustomerUsageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CouponRedemptionService redemptionService;
+
+    /**
+     * Simula a coluna reserved_uses com o mesmo UPDATE condicional do repositório.
+     */
+    private final AtomicInteger reservedUses = new AtomicInteger();
+
+    /**
+     * Simula a tabela coupon_customer_usage, com o mesmo UPDATE condicional do repositório.
+     */
+    private final Map<String, Integer> customerUses = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        redemptionService = service(Duration.ofMinutes(1));
+    }
+
+    private CouponRedemptionService service(Duration exhaustedRecheck) {
+        return new CouponRedemptionService(couponService, couponRepository, couponRedemptionRepository,
+                couponCustomerUsageRepository, transactionManager, 7, exhaustedRecheck, Duration.ofMinutes(10));
+    }
+
+    private void customerUsageTable() {
+        lenient().when(couponCustomerUsageRepository.incrementBelow(eq(COUPON_ID), anyString(), anyInt())).thenAnswer(invocation -> {
+            String customerId = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            boolean[] incremented = new boolean[1];
+            customerUses.computeIfPresent(customerId, (key, current) -> {
+                incremented[0] = current < limit;
+                return incremented[0] ? current + 1 : current;
+            });
+            return incremented[0] ? 1 : 0;
+        });
+        lenient().when(couponCustomerUsageRepository.existsByCouponIdAndCustomerId(eq(COUPON_ID), anyString()))
+                .thenAnswer(invocation -> customerUses.containsKey(invocation.<String>getArgument(1)));
+        lenient().when(couponCustomerUsageRepository.insertFirstUse(eq(COUPON_ID), anyString())).thenAnswer(invocation -> {
+            if (customerUses.putIfAbsent(invocation.getArgument(1), 1) != null) {
+                throw new DataIntegrityViolationException("pk_coupon_customer_usage");
+            }
+            return 1;
+        });
+    }
+
+    private void couponWithLimits(Integer maxUses, Integer maxUsesPerCustomer) {
+        CouponResponse coupon = new CouponResponse(COUPON_ID, "FLASH1", "desc",
+                BigDecimal.ONE, LocalDateTime.now().plusDays(1), true, maxUses, maxUsesPerCustomer);
+        when(couponService.validate("FLASH1")).thenReturn(coupon);
+        lenient().when(couponRepository.findValidByCode(eq("FLASH1"), any())).thenReturn(Optional.of(coupon));
+        if (maxUses != null) {
+            lenient().when(couponRepository.findUnreservedUses(COUPON_ID))
+                    .thenAnswer(invocation -> Optional.of(maxUses - reservedUses.get()));
+            lenient().when(couponRepository.reserveUses(eq(COUPON_ID), anyInt())).thenAnswer(invocation -> {
+                int count = invocation.getArgument(1);
+                int current = reservedUses.get();
+                return current + count <= maxUses && reservedUses.compareAndSet(current, current + count) ? 1 : 0;
+            });
+        }
+    }
+
+    @Test
+    void redeem_shouldNeverExceedMaxUses_underConcurrency() throws Exception {
+        couponWithLimits(100, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String customerId = "cliente-" + i;
+            attempts.add(() -> {
+                try {
+                    redemptionService.redeem("FLASH1", new CouponRedeem(customerId));
+                    return true;
+                } catch (BussinesException e) {
+                    return false;
+                }
+            });
+        }
+
+        int redeemed = 0;
+        for (Future<Boolean> result : executor.invokeAll(attempts)) {
+            redeemed += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(100, redeemed);
+        assertEquals(100, reservedUses.get());
+        // Reservas em blocos de 7: 15 blocos cheios e um de 5, em vez de um UPDATE por resgate.
+        verify(couponRepository, atMost(20)).reserveUses(eq(COUPON_ID), anyInt());
+    }
+
+    @Test
+    void redeem_shouldEnforceLimitPerCustomer_countingStoredRedemptions() {
+        couponWithLimits(null, 2);
+        customerUsageTable();
+        customerUses.put("ana", 1);
+
+        CouponRedemptionResponse response = redemptionService.redeem("FLASH1", new CouponRedeem(" ana "));
+        assertEquals("ana", response.customerId());
+        assertEquals(COUPON_ID, response.couponId());
+
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("ana")));
+        assertEquals("Limite de usos do cupom para este cliente atingido", exception.getMessage());
+        assertEquals(2, customerUses.get("ana"));
+        verify(couponRedemptionRepository, times(1)).save(any());
+    }
+
+    @Test
+    void redeem_shouldRetry_whenFirstUseOfCustomerRacesWithAnother() {
+        couponWithLimits(null, 1);
+        customerUsageTable();
+        // Outro resgate da mesma cliente criou a linha entre o UPDATE e o INSERT desta transação.
+        when(couponCustomerUsageRepository.existsByCouponIdAndCustomerId(COUPON_ID, "ana")).thenAnswer(invocation -> {
+            customerUses.put("ana", 0);
+            return false;
+        }).thenAnswer(invocation -> customerUses.containsKey("ana"));
+
+        redemptionService.redeem("FLASH1", new CouponRedeem("ana"));
+
+        assertEquals(1, customerUses.get("ana"));
+        verify(couponCustomerUsageRepository, times(2)).incrementBelow(COUPON_ID, "ana", 1);
+        verify(couponRedemptionRepository, times(1)).save(any());
+    }
+
+    @Test
+    void redeem_shouldNotConsumeCustomerUse_whenTotalLimitIsReached() {
+        redemptionService = service(Duration.ZERO);
+        couponWithLimits(1, 1);
+        customerUsageTable();
+
+        redemptionService.redeem("FLASH1", new CouponRedeem("ana"));
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("bia")));
+        assertEquals("Limite de usos do cupom atingido", exception.getMessage());
+        assertFalse(customerUses.containsKey("bia"));
+
+        // Outra instância devolveu o uso que tinha reservado.
+        reservedUses.set(0);
+        assertDoesNotThrow(() -> redemptionService.redeem("FLASH1", new CouponRedeem("bia")));
+    }
+
+    @Test
+    void redeem_shouldGiveBackTotalUse_whenCustomerLimitIsReached() {
+        couponWithLimits(2, 1);
+        customerUsageTable();
+        customerUses.put("ana", 1);
+
+        assertThrows(BussinesException.class, () -> redemptionService.redeem("FLASH1", new CouponRedeem("ana")));
+        redemptionService.redeem("FLASH1", new CouponRedeem("bia"));
+        redemptionService.redeem("FLASH1", new CouponRedeem("caio"));
+
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("duda")));
+        assertEquals("Limite de usos do cupom atingido", exception.getMessage());
+        verify(couponRedemptionRepository, times(2)).save(any());
+    }
+
+    @Test
+    void redeem_shouldRefuseCouponDeletedAfterCachedValidation_andGiveBackTotalUse() {
+        couponWithLimits(1, null);
+        // O cache ainda considera o cupom válido, mas no primário ele já foi deletado.
+        when(couponRepository.findValidByCode(eq("FLASH1"), any())).thenReturn(Optional.empty());
+
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("ana")));
+        assertEquals("Cupom inválido ou expirado", exception.getMessage());
+        verify(couponRedemptionRepository, never()).save(any());
+
+        when(couponRepository.findValidByCode(eq("FLASH1"), any())).thenReturn(Optional.of(new CouponResponse(COUPON_ID,
+                "FLASH1", "desc", BigDecimal.ONE, LocalDateTime.now().plusDays(1), true, 1, null)));
+        assertDoesNotThrow(() -> redemptionService.redeem("FLASH1", new CouponRedeem("bia")));
+    }
+
+    @Test
+    void redeem_shouldRefuseCouponWithoutMaxUses_whenCodeNowBelongsToAnotherCoupon() {
+        couponWithLimits(null, null);
+        when(couponRepository.findValidByCode(eq("FLASH1"), any())).thenReturn(Optional.of(new CouponResponse(
+                UUID.randomUUID(), "FLASH1", "desc", BigDecimal.ONE, LocalDateTime.now().plusDays(1), true, null, null)));
+
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("ana")));
+        assertEquals("Cupom inválido ou expirado", exception.getMessage());
+        verify(couponRedemptionRepository, never()).save(any());
+    }
+
+    @Test
+    void redeem_shouldRequireCustomerId() {
+        BussinesException exception = assertThrows(BussinesException.class,
+                () -> redemptionService.redeem("FLASH1", new CouponRedeem("  ")));
+        assertEquals("O identificador do cliente deve ter entre 1 e 64 caracteres", exception.getMessage());
+        verifyNoInteractions(couponService);
+    }
+
+    @Test
+    void redeem_shouldStoreEachRedemptionBeforeAnswering_andFlushRefreshesRedeemedCount() {
+        couponWithLimits(null, null);
+        redemptionService.redeem("FLASH1", new CouponRedeem("ana"));
+        redemptionService.redeem("FLASH1", new CouponRedeem("bia"));
+        redemptionService.redeem("FLASH1", new CouponRedeem("ana"));
+
+        verify(couponRedemptionRepository, times(3)).save(any());
+        verifyNoInteractions(couponCustomerUsageRepository);
+
+        redemptionService.flush();
+        verify(couponRepository).refreshRedeemedUses(List.of(COUPON_ID));
+
+        redemptionService.flush();
+        verify(couponRepository, times(1)).refreshRedeemedUses(anyCollection());
+    }
+
+    @Test
+    void shutdown_shouldReleaseUnusedReservedUses() {
+        couponWithLimits(100, null);
+        redemptionService.redeem("FLASH1", new CouponRedeem("ana"));
+
+        redemptionService.shutdown();
+
+        verify(couponRepository).releaseUses(COUPON_ID, 6);
+    }
+}
@@ -1,10 +1,21 @@
 package com.br.elton.tecnologia.coupon.domain.service;
 
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDelete;
+import com.br.elton.tecnologia.coupon.api.dto.CouponBulkDeleteReport;
 import com.br.elton.tecnologia.coupon.api.dto.CouponCreated;
+import com.br.elton.tecnologia.coupon.api.dto.CouponFilter;
+import com.br.elton.tecnologia.coupon.api.dto.CouponGeneration;
+import com.br.elton.tecnologia.coupon.api.dto.CouponPage;
 import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
 import com.br.elton.tecnologia.coupon.api.exception.BussinesException;
+import com.br.elton.tecnologia.coupon.api.mapper.CouponMapper;
 import com.br.elton.tecnologia.coupon.domain.model.Coupon;
+import com.br.elton.tecnologia.coupon.domain.model.CouponCursor;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponOutboxRepository;
 import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,12 +23,25 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +52,19 @@ class CouponServiceTest {
     @Mock
     private CouponRepository couponRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CouponCodeGenerator couponCodeGenerator;
+
+    @Mock
+    private CouponOutboxRepository couponOutboxRepository;
+
+    private CouponValidationCache couponValidationCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private CouponService couponService;
 
     @Captor
@@ -45,13 +82,22 @@ class CouponServiceTest {
         static final String MSG_ALREADY_EXISTS = "Já existe um cupom com este código";
         static final String MSG_MIN_DISCOUNT = "Desconto mínimo é 0.5";
         static final String MSG_EXPIRATION = "A data de expiração deve ser uma data futura";
-        static final String MSG_NONE_VALID = "Nenhum cupom válido encontrado!";
+        static final String MSG_PAGE_LIMIT = "O limite da página deve estar entre 1 e 500";
+        static final String MSG_INVALID_CURSOR = "Cursor de paginação inválido";
+        static final String MSG_INVALID_OR_EXPIRED = "Cupom inválido ou expirado";
+        static final String MSG_GENERATION_QUANTITY = "A quantidade de cupons a gerar deve estar entre 1 e 10000";
         static final String MSG_NONE_FOUND = "Nenhum cupom encontrado com o ID informado";
+        static final String MSG_ALREADY_DELETED = "Cupom já está deletado.";
     }
 
     @BeforeEach
     void setUp() {
-        couponService = new CouponService(couponRepository);
+        couponValidationCache = new CouponValidationCache(100, Duration.ofMinutes(5));
+        meterRegistry = new SimpleMeterRegistry();
+        couponService = new CouponService(couponRepository, entityManager, couponValidationCache,
+                new CouponValidationBatcher(couponRepository, Duration.ZERO, 100), couponCodeGenerator,
+                new CouponListCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1)), couponOutboxRepository,
+                new CouponMetrics(meterRegistry));
     }
 
     @Test
@@ -59,8 +105,6 @@ class CouponServiceTest {
         CouponCreated created = new CouponCreated(Companion.EXPECTED_CODE, Companion.DESC, BigDecimal.valueOf(1.50), LocalDateTime.now().plusDays(10), true);
         String expectedCode = Companion.EXPECTED_CODE;
 
-        when(couponRepository.existsByCode(expectedCode)).thenReturn(false);
-
         Coupon saved = Coupon.builder()
                 .id(UUID.randomUUID())
                 .code(expectedCode)
@@ -71,157 +115,379 @@ class CouponServiceTest {
                 .deleted(false)
                 .build();
 
-        when(couponRepository.save(any(Coupon.class))).thenReturn(saved);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenReturn(saved);
 
         CouponResponse response = couponService.create(created);
 
         assertNotNull(response);
         assertEquals(expectedCode, response.code());
         assertEquals(saved.getDiscountValue(), response.discountValue());
-        verify(couponRepository).existsByCode(expectedCode);
-        verify(couponRepository).save(couponCaptor.capture());
+        verify(couponRepository).saveAndFlush(couponCaptor.capture());
         Coupon captured = couponCaptor.getValue();
         assertEquals(expectedCode, captured.getCode());
         assertEquals(Companion.DESC, captured.getDescription());
+        verify(couponOutboxRepository).recordCreated(List.of(saved.getId()));
     }
 
     @Test
     void create_shouldThrow_whenSanitizedCodeLengthNot6() {
         CouponCreated created = new CouponCreated(Companion.SHORT_CODE_RAW, Companion.DESC, BigDecimal.valueOf(1.00), LocalDateTime.now().plusDays(1), false);
 
-        String expectedSanitized = Coupon.sanitizeCode(created.code());
-
-        when(couponRepository.existsByCode(expectedSanitized)).thenReturn(false);
-
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.create(created));
         assertTrue(ex.getMessage().contains(Companion.MSG_EXACTLY_6));
-        verify(couponRepository).existsByCode(expectedSanitized);
-        verify(couponRepository, never()).save(any());
+        verify(couponRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void create_shouldThrow_whenSanitizedCodeLengthNot6_codeIsNull() {
         CouponCreated created = new CouponCreated(null, Companion.DESC, BigDecimal.valueOf(1.00), LocalDateTime.now().plusDays(1), false);
 
-        String expectedSanitized = Coupon.sanitizeCode(created.code());
-
-        when(couponRepository.existsByCode(expectedSanitized)).thenReturn(false);
-
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.create(created));
         assertTrue(ex.getMessage().contains(Companion.MSG_EXACTLY_6));
-        verify(couponRepository).existsByCode(expectedSanitized);
-        verify(couponRepository, never()).save(any());
+        verify(couponRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void create_shouldThrow_whenCodeAlreadyExists() {
         CouponCreated created = new CouponCreated("abcDEF", Companion.DESC, BigDecimal.valueOf(1.00), LocalDateTime.now().plusDays(1), false);
-        String sanitized = Companion.SANITIZED;
 
-        when(couponRepository.existsByCode(sanitized)).thenReturn(true);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_COUPON_ACTIVE_CODE_INDEX_1")));
 
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.create(created));
         assertTrue(ex.getMessage().contains(Companion.MSG_ALREADY_EXISTS));
-        verify(couponRepository).existsByCode(sanitized);
-        verify(couponRepository, never()).save(any());
+        verify(couponRepository).saveAndFlush(couponCaptor.capture());
+        assertEquals(Companion.SANITIZED, Coupon.sanitizeCode(couponCaptor.getValue().getCode()));
+    }
+
+    @Test
+    void create_shouldRethrow_whenOtherConstraintIsViolated() {
+        CouponCreated created = new CouponCreated("abcDEF", Companion.DESC, BigDecimal.valueOf(1.00), LocalDateTime.now().plusDays(1), false);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException(), "PUBLIC.CONSTRAINT_DESCRIPTION"));
+
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenThrow(failure);
+
+        assertSame(failure, assertThrows(DataIntegrityViolationException.class, () -> couponService.create(created)));
     }
 
     @Test
     void create_shouldThrow_whenDiscountTooSmall() {
         CouponCreated created = new CouponCreated(Companion.MIN_DISCOUNT_CODE, Companion.DESC, BigDecimal.valueOf(0.40), LocalDateTime.now().plusDays(1), false);
 
-        when(couponRepository.existsByCode(Companion.MIN_DISCOUNT_CODE)).thenReturn(false);
-
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.create(created));
         assertTrue(ex.getMessage().contains(Companion.MSG_MIN_DISCOUNT));
-        verify(couponRepository).existsByCode(Companion.MIN_DISCOUNT_CODE);
-        verify(couponRepository, never()).save(any());
+        verify(couponRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void create_shouldThrow_whenExpirationDateInPast() {
         CouponCreated created = new CouponCreated(Companion.MIN_DISCOUNT_CODE, Companion.DESC, BigDecimal.valueOf(1.00), LocalDateTime.now().minusDays(1), false);
 
-        when(couponRepository.existsByCode(Companion.MIN_DISCOUNT_CODE)).thenReturn(false);
-
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.create(created));
         assertTrue(ex.getMessage().contains(Companion.MSG_EXPIRATION));
-        verify(couponRepository).existsByCode(Companion.MIN_DISCOUNT_CODE);
-        verify(couponRepository, never()).save(any());
+        verify(couponRepository, never()).saveAndFlush(any());
     }
 
     @Test
-    void listValidCoupon_shouldReturnResponses_whenFound() {
-        Coupon c1 = Coupon.builder()
-                .id(UUID.randomUUID())
-                .code("AAA111")
-                .description("d1")
-                .discountValue(BigDecimal.valueOf(1))
-                .expirationDate(LocalDateTime.now().plusDays(5))
-                .published(true)
-                .deleted(false)
-                .build();
+    void listValidCoupon_shouldReturnFirstPageWithCursor_whenMoreRowsExist() {
+        Coupon c1 = validCoupon("AAA111", 5);
+        Coupon c2 = validCoupon("BBB222", 10);
+        Coupon c3 = validCoupon("CCC333", 15);
 
-        Coupon c2 = Coupon.builder()
-                .id(UUID.randomUUID())
-                .code("BBB222")
-                .description("d2")
-                .discountValue(BigDecimal.valueOf(2))
-                .expirationDate(LocalDateTime.now().plusDays(10))
-                .published(true)
-                .deleted(false)
-                .build();
+        when(couponRepository.findValidPage(any(LocalDateTime.class), eq(Limit.of(3)))).thenReturn(responses(c1, c2, c3));
 
-        when(couponRepository.findAllByDeletedFalse()).thenReturn(Optional.of(List.of(c1, c2)));
+        CouponPage page = couponService.listValidCoupon(null, 2);
 
-        List<CouponResponse> responses = couponService.listValidCoupon();
+        assertEquals(2, page.items().size());
+        assertEquals("AAA111", page.items().get(0).code());
+        assertEquals("BBB222", page.items().get(1).code());
+        assertEquals(CouponCursor.of(c2).encode(), page.nextCursor());
+        assertEquals(2, meterRegistry.get(CouponMetrics.LIST_SIZE).tag("operation", "page").summary().totalAmount());
+    }
+
+    @Test
+    void listValidCoupon_shouldSeekAfterCursor_whenCursorInformed() {
+        Coupon last = validCoupon("AAA111", 5);
+        Coupon next = validCoupon("BBB222", 10);
+        String cursor = CouponCursor.of(last).encode();
+
+        when(couponRepository.findValidPageAfter(eq(last.getExpirationDate()), eq(last.getId()), any(LocalDateTime.class), eq(Limit.of(CouponService.DEFAULT_PAGE_SIZE + 1))))
+                .thenReturn(responses(next));
+
+        CouponPage page = couponService.listValidCoupon(cursor, null);
+
+        assertEquals(1, page.items().size());
+        assertEquals("BBB222", page.items().get(0).code());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void listValidCoupon_shouldReturnEmptyPage_whenNoneFound() {
+        when(couponRepository.findValidPage(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+
+        CouponPage page = couponService.listValidCoupon(null, null);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void listValidCoupon_shouldThrow_whenLimitOutOfRange() {
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.listValidCoupon(null, CouponService.MAX_PAGE_SIZE + 1));
+        assertTrue(ex.getMessage().contains(Companion.MSG_PAGE_LIMIT));
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void listValidCoupon_shouldThrow_whenCursorIsInvalid() {
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.listValidCoupon("not-a-cursor", null));
+        assertTrue(ex.getMessage().contains(Companion.MSG_INVALID_CURSOR));
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void streamValidCoupon_shouldEmitEachProjectedCoupon() {
+        Coupon c1 = validCoupon("AAA111", 5);
+        Coupon c2 = validCoupon("BBB222", 10);
+
+        when(couponRepository.streamBy(any())).thenReturn(responses(c1, c2).stream());
+
+        List<CouponResponse> emitted = new ArrayList<>();
+        couponService.streamValidCoupon(CouponFilter.NONE, emitted::add);
 
-        assertEquals(2, responses.size());
-        assertEquals("AAA111", responses.get(0).code());
-        assertEquals("BBB222", responses.get(1).code());
+        assertEquals(List.of("AAA111", "BBB222"), emitted.stream().map(CouponResponse::code).toList());
+        assertEquals(2, meterRegistry.get(CouponMetrics.LIST_SIZE).tag("operation", "all").summary().totalAmount());
+        verifyNoInteractions(entityManager);
     }
 
     @Test
-    void listValidCoupon_shouldThrow_whenNoneFound() {
-        when(couponRepository.findAllByDeletedFalse()).thenReturn(Optional.empty());
+    void validate_shouldServeFromCache_whenCalledAgain() {
+        Coupon coupon = validCoupon("VAL123", 5);
+        when(couponRepository.findValidByCode(eq("VAL123"), any(LocalDateTime.class))).thenReturn(Optional.of(CouponMapper.toResponse(coupon)));
+
+        CouponResponse first = couponService.validate("val-123");
+        CouponResponse second = couponService.validate("VAL123");
+
+        assertEquals(coupon.getId(), first.id());
+        assertEquals(first, second);
+        verify(couponRepository, times(1)).findValidByCode(eq("VAL123"), any(LocalDateTime.class));
+        assertEquals(1, couponValidationCache.stats().hitCount());
+        assertEquals(1, couponValidationCache.stats().missCount());
+    }
 
-        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.listValidCoupon());
-        assertTrue(ex.getMessage().contains(Companion.MSG_NONE_VALID));
+    @Test
+    void validate_shouldQueryOnce_whenSameCodeValidatedConcurrently() throws Exception {
+        Coupon coupon = validCoupon("HOT123", 5);
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(couponRepository.findValidByCode(eq("HOT123"), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            queried.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(CouponMapper.toResponse(coupon));
+        });
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<CouponResponse>> results = new ArrayList<>();
+            results.add(executor.submit(() -> couponService.validate("HOT123")));
+            assertTrue(queried.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> couponService.validate("hot-123")));
+            }
+            release.countDown();
+
+            for (Future<CouponResponse> result : results) {
+                assertEquals(coupon.getId(), result.get(5, TimeUnit.SECONDS).id());
+            }
+        }
+        verify(couponRepository, times(1)).findValidByCode(eq("HOT123"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void validate_shouldCache_whenExpirationIsCenturiesAway() {
+        Coupon coupon = validCoupon("FAR123", 5);
+        coupon.setExpirationDate(LocalDateTime.of(9999, 12, 31, 23, 59));
+        when(couponRepository.findValidByCode(eq("FAR123"), any(LocalDateTime.class))).thenReturn(Optional.of(CouponMapper.toResponse(coupon)));
+
+        assertEquals(coupon.getId(), couponService.validate("FAR123").id());
+        assertEquals(coupon.getId(), couponService.validate("FAR123").id());
+        verify(couponRepository, times(1)).findValidByCode(eq("FAR123"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void validate_shouldThrow_whenCodeNotValid() {
+        when(couponRepository.findValidByCode(eq("NOP123"), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.validate("NOP123"));
+        assertTrue(ex.getMessage().contains(Companion.MSG_INVALID_OR_EXPIRED));
+    }
+
+    @Test
+    void validate_shouldThrowWithoutQuery_whenCodeMalformed() {
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.validate(Companion.SHORT_CODE_RAW));
+        assertTrue(ex.getMessage().contains(Companion.MSG_EXACTLY_6));
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void create_shouldInvalidateCachedNegativeValidation() {
+        CouponCreated created = new CouponCreated(Companion.EXPECTED_CODE, Companion.DESC, BigDecimal.valueOf(1.50), LocalDateTime.now().plusDays(10), true);
+        Coupon saved = validCoupon(Companion.EXPECTED_CODE, 10);
+
+        when(couponRepository.findValidByCode(eq(Companion.EXPECTED_CODE), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(CouponMapper.toResponse(saved)));
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenReturn(saved);
+
+        assertThrows(BussinesException.class, () -> couponService.validate(Companion.EXPECTED_CODE));
+        couponService.create(created);
+
+        assertEquals(saved.getId(), couponService.validate(Companion.EXPECTED_CODE).id());
+    }
+
+    @Test
+    void deleteById_shouldInvalidateCachedValidation() {
+        Coupon existing = validCoupon("DEL123", 5);
+
+        when(couponRepository.findValidByCode(eq("DEL123"), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(CouponMapper.toResponse(existing)))
+                .thenReturn(Optional.empty());
+        when(couponRepository.softDeleteById(eq(existing.getId()), any(LocalDateTime.class))).thenReturn(1);
+
+        couponService.validate("DEL123");
+        couponService.deleteById(existing.getId());
+
+        assertThrows(BussinesException.class, () -> couponService.validate("DEL123"));
+        verify(couponRepository, times(2)).findValidByCode(eq("DEL123"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void generate_shouldReplaceCodesAlreadyTaken() {
+        CouponGeneration generation = new CouponGeneration(3, Companion.DESC, BigDecimal.valueOf(1), LocalDateTime.now().plusDays(1), true);
+
+        when(couponCodeGenerator.nextCodes(3)).thenReturn(List.of("GEN001", "TAKEN1", "GEN002"));
+        when(couponCodeGenerator.nextCodes(1)).thenReturn(List.of("GEN003"));
+        when(couponRepository.findExistingCodes(List.of("GEN001", "TAKEN1", "GEN002"))).thenReturn(Set.of("TAKEN1"));
+        when(couponRepository.findExistingCodes(List.of("GEN003"))).thenReturn(Set.of());
+
+        List<CouponResponse> generated = couponService.generate(generation);
+
+        assertEquals(List.of("GEN001", "GEN002", "GEN003"), generated.stream().map(CouponResponse::code).toList());
+        assertTrue(generated.stream().allMatch(coupon -> Companion.DESC.equals(coupon.description())));
+        verify(couponRepository, times(2)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void generate_shouldThrowBusinessError_whenAManualCouponTakesAGeneratedCodeBeforeTheFlush() {
+        CouponGeneration generation = new CouponGeneration(2, Companion.DESC, BigDecimal.valueOf(1), LocalDateTime.now().plusDays(1), true);
+        when(couponCodeGenerator.nextCodes(2)).thenReturn(List.of("GEN001", "GEN002"));
+        when(couponRepository.findExistingCodes(List.of("GEN001", "GEN002"))).thenReturn(Set.of());
+        when(couponRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_COUPON_ACTIVE_CODE_INDEX_1")));
+
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.generate(generation));
+
+        assertEquals("Um código gerado foi criado ao mesmo tempo por outra requisição; gere os cupons de novo", ex.getMessage());
+        verifyNoInteractions(couponOutboxRepository);
+    }
+
+    @Test
+    void generate_shouldThrowWithoutReservingCodes_whenTermsInvalid() {
+        CouponGeneration generation = new CouponGeneration(3, Companion.DESC, BigDecimal.valueOf(0.1), LocalDateTime.now().plusDays(1), true);
+
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.generate(generation));
+        assertTrue(ex.getMessage().contains(Companion.MSG_MIN_DISCOUNT));
+        verifyNoInteractions(couponCodeGenerator);
+    }
+
+    @Test
+    void generate_shouldThrow_whenQuantityOutOfRange() {
+        CouponGeneration generation = new CouponGeneration(0, Companion.DESC, BigDecimal.valueOf(1), LocalDateTime.now().plusDays(1), true);
+
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.generate(generation));
+        assertTrue(ex.getMessage().contains(Companion.MSG_GENERATION_QUANTITY));
     }
 
     @Test
     void deleteById_shouldReturnTrue_whenDeleted() {
         UUID id = UUID.randomUUID();
 
-        Coupon existing = Coupon.builder()
-                .id(id)
-                .code("DEL123")
-                .description("d")
-                .discountValue(BigDecimal.valueOf(1))
-                .expirationDate(LocalDateTime.now().plusDays(5))
-                .published(true)
-                .deleted(false)
-                .build();
-
-        when(couponRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(couponRepository.save(any(Coupon.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(couponRepository.softDeleteById(eq(id), any(LocalDateTime.class))).thenReturn(1);
 
         Boolean result = couponService.deleteById(id);
 
         assertTrue(result);
-        verify(couponRepository).findById(id);
-        verify(couponRepository).save(couponCaptor.capture());
-        Coupon saved = couponCaptor.getValue();
-        assertTrue(saved.isDeleted());
+        verify(couponRepository).softDeleteById(eq(id), any(LocalDateTime.class));
+        verify(couponRepository, never()).findById(any());
+        verify(couponRepository, never()).existsById(any());
+        verify(couponRepository, never()).save(any());
+        verify(couponOutboxRepository).recordDeleted(List.of(id));
     }
 
     @Test
     void deleteById_shouldThrow_whenNotFound() {
         UUID id = UUID.randomUUID();
-        when(couponRepository.findById(id)).thenReturn(Optional.empty());
+        when(couponRepository.softDeleteById(eq(id), any(LocalDateTime.class))).thenReturn(0);
+        when(couponRepository.existsById(id)).thenReturn(false);
 
         BussinesException ex = assertThrows(BussinesException.class, () -> couponService.deleteById(id));
         assertTrue(ex.getMessage().contains(Companion.MSG_NONE_FOUND));
-        verify(couponRepository).findById(id);
+        verify(couponRepository).softDeleteById(eq(id), any(LocalDateTime.class));
+    }
+
+    @Test
+    void deleteById_shouldThrow_whenAlreadyDeleted() {
+        UUID id = UUID.randomUUID();
+        when(couponRepository.softDeleteById(eq(id), any(LocalDateTime.class))).thenReturn(0);
+        when(couponRepository.existsById(id)).thenReturn(true);
+
+        BussinesException ex = assertThrows(BussinesException.class, () -> couponService.deleteById(id));
+        assertTrue(ex.getMessage().contains(Companion.MSG_ALREADY_DELETED));
+        verifyNoInteractions(couponOutboxRepository);
+    }
+
+    @Test
+    void deleteAllById_shouldSkipClassificationRead_whenEveryIdIsDeleted() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(couponRepository.softDeleteByIdIn(eq(ids), any(LocalDateTime.class))).thenReturn(2);
+
+        CouponBulkDeleteReport report = couponService.deleteAllById(new CouponBulkDelete(ids));
+
+        assertEquals(new CouponBulkDeleteReport(2, 2, 0, List.of()), report);
+        verify(couponRepository, never()).findExistingIds(any());
+        verify(couponOutboxRepository).recordDeleted(ids);
+    }
+
+    @Test
+    void deleteAllById_shouldSeparateNotFoundFromAlreadyDeleted() {
+        UUID deleted = UUID.randomUUID();
+        UUID alreadyDeleted = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(deleted, alreadyDeleted, missing);
+
+        when(couponRepository.softDeleteByIdIn(eq(ids), any(LocalDateTime.class))).thenReturn(1);
+        when(couponRepository.findIdsDeletedAt(eq(ids), any(LocalDateTime.class))).thenReturn(List.of(deleted));
+        when(couponRepository.findExistingIds(ids)).thenReturn(Set.of(deleted, alreadyDeleted));
+
+        CouponBulkDeleteReport report = couponService.deleteAllById(new CouponBulkDelete(List.of(deleted, alreadyDeleted, missing, deleted)));
+
+        assertEquals(new CouponBulkDeleteReport(3, 1, 1, List.of(missing)), report);
+        verify(couponOutboxRepository).recordDeleted(List.of(deleted));
+    }
+
+    private static List<CouponResponse> responses(Coupon... coupons) {
+        return Stream.of(coupons).map(CouponMapper::toResponse).toList();
+    }
+
+    private static Coupon validCoupon(String code, int daysToExpire) {
+        return Coupon.builder()
+                .id(UUID.randomUUID())
+                .code(code)
+                .description("d")
+                .discountValue(BigDecimal.valueOf(1))
+                .expirationDate(LocalDateTime.now().plusDays(daysToExpire))
+                .published(true)
+                .deleted(false)
+                .build();
     }
 }
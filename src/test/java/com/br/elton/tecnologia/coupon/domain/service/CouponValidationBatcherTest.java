@@ -0,0 +1,112 @@
+package com.br.elton.tecnologia.coupon.domain.service;
+
+import com.br.elton.tecnologia.coupon.api.dto.CouponResponse;
+import com.br.elton.tecnologia.coupon.domain.repository.CouponRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponValidationBatcherTest {
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Test
+    void findValidByCode_shouldQueryDirectly_whenWindowIsZero() {
+        CouponValidationBatcher batcher = new CouponValidationBatcher(couponRepository, Duration.ZERO, 100);
+        CouponResponse coupon = coupon("ABC123");
+        when(couponRepository.findValidByCode(eq("ABC123"), any(LocalDateTime.class))).thenReturn(Optional.of(coupon));
+
+        assertEquals(Optional.of(coupon), batcher.findValidByCode("ABC123"));
+        verify(couponRepository, never()).findValidByCodeIn(any(), any());
+    }
+
+    @Test
+    void findValidByCode_shouldLoadDistinctCodesInOneQuery_whenArrivingWithinWindow() throws Exception {
+        CouponValidationBatcher batcher = new CouponValidationBatcher(couponRepository, Duration.ofMillis(300), 100);
+        when(couponRepository.findValidByCodeIn(any(), any(LocalDateTime.class)))
+                .thenReturn(List.of(coupon("AAA111"), coupon("BBB222")));
+
+        List<Optional<CouponResponse>> results = validateConcurrently(batcher, "AAA111", "BBB222", "CCC333");
+
+        assertEquals("AAA111", results.get(0).orElseThrow().code());
+        assertEquals("BBB222", results.get(1).orElseThrow().code());
+        assertTrue(results.get(2).isEmpty());
+        ArgumentCaptor<Collection<String>> codes = captor();
+        verify(couponRepository, times(1)).findValidByCodeIn(codes.capture(), any(LocalDateTime.class));
+        assertEquals(Set.of("AAA111", "BBB222", "CCC333"), Set.copyOf(codes.getValue()));
+        verify(couponRepository, never()).findValidByCode(any(), any());
+    }
+
+    @Test
+    void findValidByCode_shouldNotWaitWholeWindow_whenBatchIsFull() throws Exception {
+        CouponValidationBatcher batcher = new CouponValidationBatcher(couponRepository, Duration.ofSeconds(30), 2);
+        when(couponRepository.findValidByCodeIn(any(), any(LocalDateTime.class))).thenReturn(List.of());
+
+        long start = System.nanoTime();
+        List<Optional<CouponResponse>> results = validateConcurrently(batcher, "AAA111", "BBB222");
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertTrue(results.stream().allMatch(Optional::isEmpty));
+    }
+
+    @Test
+    void findValidByCode_shouldFailEveryCodeInBatch_whenQueryFails() throws Exception {
+        CouponValidationBatcher batcher = new CouponValidationBatcher(couponRepository, Duration.ofMillis(300), 100);
+        when(couponRepository.findValidByCodeIn(any(), any(LocalDateTime.class))).thenThrow(new IllegalStateException("banco fora"));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Optional<CouponResponse>> first = executor.submit(() -> batcher.findValidByCode("AAA111"));
+            Future<Optional<CouponResponse>> second = executor.submit(() -> batcher.findValidByCode("BBB222"));
+
+            for (Future<Optional<CouponResponse>> result : List.of(first, second)) {
+                Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, exception.getCause());
+            }
+        }
+    }
+
+    private static List<Optional<CouponResponse>> validateConcurrently(CouponValidationBatcher batcher, String... codes) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(codes.length)) {
+            List<Future<Optional<CouponResponse>>> futures = new ArrayList<>();
+            for (String code : codes) {
+                futures.add(executor.submit(() -> batcher.findValidByCode(code)));
+            }
+            List<Optional<CouponResponse>> results = new ArrayList<>();
+            for (Future<Optional<CouponResponse>> future : futures) {
+                results.add(future.get(15, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<String>> captor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+
+    private static CouponResponse coupon(String code) {
+        return new CouponResponse(UUID.randomUUID(), code, "Cupom", BigDecimal.ONE, LocalDateTime.now().plusDays(1), true, null, null);
+    }
+}